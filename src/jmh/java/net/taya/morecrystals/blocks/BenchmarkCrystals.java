@@ -0,0 +1,101 @@
+package net.taya.morecrystals.blocks;
+
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.MappedRegistry;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.CrystalTypeDefinition;
+import net.taya.morecrystals.CrystalTypeLoader;
+
+/**
+ * Sets up crystal types for the benchmarks without a running game. Minecraft is bootstrapped once
+ * and each of the mod's default crystal types has its blocks registered directly into the block
+ * registry, so the deferred blocks and growth tables resolve exactly as they do in game.
+ */
+final class BenchmarkCrystals {
+  private static final Map<String, CrystalType> TYPES = new HashMap<>();
+  private static boolean bootstrapped;
+
+  private BenchmarkCrystals() {}
+
+  /**
+   * Gets a crystal type by name, registering its blocks on first use
+   *
+   * @param name The type name (e.g., "diamond", "redstone")
+   * @return The crystal type
+   */
+  static synchronized CrystalType get(String name) {
+    if (!bootstrapped) {
+      SharedConstants.tryDetectVersion();
+      Bootstrap.bootStrap();
+      bootstrapped = true;
+    }
+    return TYPES.computeIfAbsent(name, BenchmarkCrystals::create);
+  }
+
+  /**
+   * Gets the bud block of a crystal type for a growth stage
+   *
+   * @param type The crystal type
+   * @param stage The growth stage
+   * @return The bud block
+   */
+  static Block budBlock(CrystalType type, CrystalBudBlock.GrowthStage stage) {
+    return switch (stage) {
+      case SMALL -> type.smallBudBlock.get();
+      case MEDIUM -> type.mediumBudBlock.get();
+      case LARGE -> type.largeBudBlock.get();
+      case CLUSTER -> type.clusterBlock.get();
+    };
+  }
+
+  private static CrystalType create(String name) {
+    CrystalTypeDefinition definition =
+        CrystalTypeLoader.loadDefaults().stream()
+            .filter(candidate -> candidate.name().equals(name))
+            .findFirst()
+            .orElseThrow(() -> new IllegalArgumentException("Unknown crystal type: " + name));
+    CrystalType type = new CrystalType(definition);
+
+    // The registry is frozen by the bootstrap, so open it up again while we add our blocks
+    MappedRegistry<Block> blocks = (MappedRegistry<Block>) BuiltInRegistries.BLOCK;
+    blocks.unfreeze();
+
+    register(type.smallBudBlock, budBlock(CrystalBudBlock.GrowthStage.SMALL));
+    register(type.mediumBudBlock, budBlock(CrystalBudBlock.GrowthStage.MEDIUM));
+    register(type.largeBudBlock, budBlock(CrystalBudBlock.GrowthStage.LARGE));
+    register(type.clusterBlock, budBlock(CrystalBudBlock.GrowthStage.CLUSTER));
+    register(type.crystalBlock, new CrystalBlock(CrystalBlock.createStandardProperties()));
+
+    register(
+        type.flawlessBuddingBlock, buddingBlock(type, BuddingCrystalBlock.BuddingQuality.FLAWLESS));
+    register(
+        type.flawedBuddingBlock, buddingBlock(type, BuddingCrystalBlock.BuddingQuality.FLAWED));
+    register(
+        type.chippedBuddingBlock, buddingBlock(type, BuddingCrystalBlock.BuddingQuality.CHIPPED));
+    register(
+        type.damagedBuddingBlock, buddingBlock(type, BuddingCrystalBlock.BuddingQuality.DAMAGED));
+
+    blocks.freeze();
+    return type;
+  }
+
+  private static Block budBlock(CrystalBudBlock.GrowthStage stage) {
+    return new CrystalBudBlock(BlockBehaviour.Properties.of(), stage);
+  }
+
+  private static Block buddingBlock(CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return new BuddingCrystalBlock(BlockBehaviour.Properties.of().randomTicks(), type, quality);
+  }
+
+  private static void register(DeferredBlock<Block> deferredBlock, Block block) {
+    Registry.register(BuiltInRegistries.BLOCK, deferredBlock.getId(), block);
+  }
+}
@@ -0,0 +1,107 @@
+package net.taya.morecrystals.blocks;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import java.lang.reflect.Proxy;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.LevelWriter;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.FluidState;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Lightweight in-memory level for the benchmarks. Blocks are kept in a position-keyed map and
+ * everything not set explicitly is air.
+ *
+ * <p>When writes are not retained the level stays frozen at its initial layout, so every benchmark
+ * invocation sees the same growth stage.
+ */
+final class BenchmarkLevel implements BlockGetter, LevelWriter {
+  private final Long2ObjectOpenHashMap<BlockState> blocks = new Long2ObjectOpenHashMap<>();
+  private final boolean retainWrites;
+
+  /**
+   * Creates an empty benchmark level
+   *
+   * @param retainWrites Whether setBlock calls change the level or are discarded
+   */
+  BenchmarkLevel(boolean retainWrites) {
+    this.retainWrites = retainWrites;
+    blocks.defaultReturnValue(Blocks.AIR.defaultBlockState());
+  }
+
+  /** Places a block, regardless of whether writes are retained */
+  void set(BlockPos pos, BlockState state) {
+    blocks.put(pos.asLong(), state);
+  }
+
+  /**
+   * Wraps this level as a {@link LevelAccessor} for methods that require one. Only block and fluid
+   * reads are supported, and the proxy dispatch cost is included in anything measured through it.
+   *
+   * @return A level accessor backed by this level
+   */
+  LevelAccessor asLevelAccessor() {
+    return (LevelAccessor)
+        Proxy.newProxyInstance(
+            LevelAccessor.class.getClassLoader(),
+            new Class<?>[] {LevelAccessor.class},
+            (proxy, method, args) ->
+                switch (method.getName()) {
+                  case "getBlockState" -> getBlockState((BlockPos) args[0]);
+                  case "getFluidState" -> getFluidState((BlockPos) args[0]);
+                  default ->
+                      throw new UnsupportedOperationException(
+                          "Not supported by the benchmark level: " + method.getName());
+                });
+  }
+
+  @Override
+  public BlockState getBlockState(BlockPos pos) {
+    return blocks.get(pos.asLong());
+  }
+
+  @Override
+  public FluidState getFluidState(BlockPos pos) {
+    return getBlockState(pos).getFluidState();
+  }
+
+  @Nullable
+  @Override
+  public BlockEntity getBlockEntity(BlockPos pos) {
+    return null;
+  }
+
+  @Override
+  public int getHeight() {
+    return 384;
+  }
+
+  @Override
+  public int getMinBuildHeight() {
+    return -64;
+  }
+
+  @Override
+  public boolean setBlock(BlockPos pos, BlockState state, int flags, int recursionLeft) {
+    if (retainWrites) {
+      set(pos, state);
+    }
+    return true;
+  }
+
+  @Override
+  public boolean removeBlock(BlockPos pos, boolean isMoving) {
+    return setBlock(pos, Blocks.AIR.defaultBlockState(), 3);
+  }
+
+  @Override
+  public boolean destroyBlock(
+      BlockPos pos, boolean dropBlock, @Nullable Entity entity, int recursionLeft) {
+    return removeBlock(pos, false);
+  }
+}
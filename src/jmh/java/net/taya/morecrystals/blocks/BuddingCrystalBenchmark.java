@@ -0,0 +1,62 @@
+package net.taya.morecrystals.blocks;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.block.Block;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.growth.GrowthRates;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures the budding crystal tick path. Every neighbour of the budding block is set to the same
+ * growth stage (or left empty) and writes are discarded, so each invocation grows into that stage.
+ */
+@State(Scope.Thread)
+public class BuddingCrystalBenchmark {
+  private static final BlockPos POS = BlockPos.ZERO;
+
+  @Param({"diamond", "redstone"})
+  public String crystalType;
+
+  @Param({"EMPTY", "SMALL", "MEDIUM", "LARGE", "CLUSTER"})
+  public String neighbourStage;
+
+  private BuddingCrystalBlock buddingBlock;
+  private BenchmarkLevel level;
+  private RandomSource random;
+
+  @Setup
+  public void setUp() {
+    CrystalType type = BenchmarkCrystals.get(crystalType);
+    buddingBlock = (BuddingCrystalBlock) type.flawlessBuddingBlock.get();
+
+    level = new BenchmarkLevel(false);
+    level.set(POS, buddingBlock.defaultBlockState());
+    if (!neighbourStage.equals("EMPTY")) {
+      Block bud =
+          BenchmarkCrystals.budBlock(type, CrystalBudBlock.GrowthStage.valueOf(neighbourStage));
+      for (Direction direction : Direction.values()) {
+        level.set(
+            POS.relative(direction),
+            bud.defaultBlockState().setValue(CrystalBudBlock.FACING, direction));
+      }
+    }
+
+    random = RandomSource.create(42L);
+
+    // Pass every chance roll so each invocation exercises the full growth path
+    Config.growthChance = 1;
+    GrowthRates.resolve();
+  }
+
+  @Benchmark
+  public boolean growthTick() {
+    return buddingBlock.growthTick(level, POS, random);
+  }
+}
@@ -0,0 +1,81 @@
+package net.taya.morecrystals.blocks;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.LevelAccessor;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.phys.shapes.CollisionContext;
+import net.minecraft.world.phys.shapes.VoxelShape;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Measures the shape and support queries of an upward facing bud resting on stone. */
+@State(Scope.Thread)
+public class CrystalBudBenchmark {
+  private static final BlockPos POS = BlockPos.ZERO;
+  private static final BlockPos SUPPORT_POS = POS.below();
+
+  @Param({"diamond", "redstone"})
+  public String crystalType;
+
+  @Param({"SMALL", "MEDIUM", "LARGE", "CLUSTER"})
+  public String growthStage;
+
+  private CrystalBudBlock budBlock;
+  private BlockState budState;
+  private BlockState supportState;
+  private BenchmarkLevel level;
+  private LevelAccessor levelAccessor;
+
+  @Setup
+  public void setUp() {
+    budBlock =
+        (CrystalBudBlock)
+            BenchmarkCrystals.budBlock(
+                BenchmarkCrystals.get(crystalType),
+                CrystalBudBlock.GrowthStage.valueOf(growthStage));
+    budState = budBlock.defaultBlockState().setValue(CrystalBudBlock.FACING, Direction.UP);
+    supportState = Blocks.STONE.defaultBlockState();
+
+    level = new BenchmarkLevel(false);
+    level.set(POS, budState);
+    level.set(SUPPORT_POS, supportState);
+    levelAccessor = level.asLevelAccessor();
+  }
+
+  @Benchmark
+  public VoxelShape getShape() {
+    return budBlock.getShape(budState, level, POS, CollisionContext.empty());
+  }
+
+  @Benchmark
+  public VoxelShape getCollisionShape() {
+    return budState.getCollisionShape(level, POS, CollisionContext.empty());
+  }
+
+  @Benchmark
+  public BlockState updateShapeFromSupport() {
+    return budBlock.updateShape(
+        budState, Direction.DOWN, supportState, levelAccessor, POS, SUPPORT_POS);
+  }
+
+  @Benchmark
+  public BlockState updateShapeFromSide() {
+    return budBlock.updateShape(
+        budState,
+        Direction.NORTH,
+        Blocks.AIR.defaultBlockState(),
+        levelAccessor,
+        POS,
+        POS.north());
+  }
+
+  @Benchmark
+  public boolean canSupportAt() {
+    return budBlock.canSupportAt(level, POS, Direction.UP);
+  }
+}
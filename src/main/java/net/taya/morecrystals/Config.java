@@ -1,9 +1,13 @@
 package net.taya.morecrystals;
 
+import java.util.HashMap;
+import java.util.Map;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
 import net.neoforged.fml.event.config.ModConfigEvent;
 import net.neoforged.neoforge.common.ModConfigSpec;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.growth.GrowthRates;
 
 /** Configuration settings for the More Crystals mod. */
 @EventBusSubscriber(modid = MoreCrystals.MODID, bus = EventBusSubscriber.Bus.MOD)
@@ -13,6 +17,48 @@ public class Config {
   // Default values
   private static final int DEFAULT_GROWTH_CHANCE = 5;
   private static final int DEFAULT_DETERIORATE_CHANCE = 8;
+  private static final GrowthMode DEFAULT_GROWTH_MODE = GrowthMode.RANDOM_TICK;
+  private static final UpdateStrategy DEFAULT_UPDATE_STRATEGY = UpdateStrategy.FULL;
+  private static final int DEFAULT_LIGHT_UPDATE_INTERVAL = 0;
+  private static final boolean DEFAULT_OFFLINE_GROWTH = false;
+  private static final IndexStorage DEFAULT_INDEX_STORAGE = IndexStorage.NBT;
+  private static final int DEFAULT_GROWTH_BUDGET = 0;
+  private static final int DEFAULT_GROWTH_BUDGET_MICROS = 0;
+  private static final int DEFAULT_DEFERRED_GROWTH_LIMIT = 4096;
+  private static final boolean DEFAULT_GROWTH_METRICS = false;
+  private static final int DEFAULT_PREGEN_CHUNKS_PER_TICK = 4;
+  private static final int DEFAULT_ACCELERATOR_RANGE = 1;
+  private static final double DEFAULT_ACCELERATOR_BOOST = 1.0;
+  private static final double DEFAULT_ACCELERATOR_MAX_MULTIPLIER = 4.0;
+  private static final boolean DEFAULT_DETERMINISTIC_GROWTH = false;
+  private static final int DEFAULT_METRICS_DUMP_INTERVAL = 0;
+  private static final MetricsDumpTarget DEFAULT_METRICS_DUMP_TARGET = MetricsDumpTarget.LOG;
+
+  /** How budding crystal growth is driven */
+  public enum GrowthMode {
+    RANDOM_TICK, // Every budding block rolls for growth on its own random ticks
+    SCHEDULED, // A per-level scheduler samples growths in batches per chunk
+    ASYNC // Growths are sampled on worker threads and applied on the server thread
+  }
+
+  /** Which block updates crystal growth sends when it changes a block */
+  public enum UpdateStrategy {
+    FULL, // Neighbour updates, shape updates and client sync, like vanilla
+    CLIENT_ONLY, // Client sync only, neighbours are never notified
+    DEFERRED_NEIGHBOR // Client sync right away, neighbour updates once per position per tick
+  }
+
+  /** How the index of budding blocks is saved */
+  public enum IndexStorage {
+    NBT, // The whole index is written to the level's NBT data on every save
+    JOURNAL // Only changed chunks are appended to a binary file per dimension
+  }
+
+  /** Where growth metrics are periodically written to */
+  public enum MetricsDumpTarget {
+    LOG, // One line per crystal type in the server log
+    CSV // One row per crystal type appended to logs/morecrystals_metrics.csv
+  }
 
   // Properties for crystal growth
   private static final ModConfigSpec.IntValue GROWTH_CHANCE =
@@ -30,17 +76,277 @@ public class Config {
               "Higher numbers mean slower deterioration. Default: " + DEFAULT_DETERIORATE_CHANCE)
           .defineInRange("deteriorateChance", DEFAULT_DETERIORATE_CHANCE, 1, 100);
 
+  // Properties for the growth engine
+  private static final ModConfigSpec.EnumValue<GrowthMode> GROWTH_MODE =
+      BUILDER
+          .comment(
+              "How budding crystal growth is driven.",
+              "RANDOM_TICK rolls the growth chance on every random tick of every budding block.",
+              "SCHEDULED samples growths per chunk in batches, at the same expected rate.",
+              "ASYNC samples like SCHEDULED on worker threads; the server thread only commits.",
+              "Default: " + DEFAULT_GROWTH_MODE)
+          .defineEnum("growthMode", DEFAULT_GROWTH_MODE);
+
+  private static final ModConfigSpec.EnumValue<UpdateStrategy> UPDATE_STRATEGY =
+      BUILDER
+          .comment(
+              "Which block updates crystal growth sends.",
+              "FULL sends neighbour and shape updates for every change, like vanilla.",
+              "CLIENT_ONLY only syncs clients, so redstone and observers won't notice growth.",
+              "DEFERRED_NEIGHBOR syncs clients and sends neighbour updates once per tick.",
+              "Except with FULL, buds that only grow in size never send shape updates.",
+              "Default: " + DEFAULT_UPDATE_STRATEGY)
+          .defineEnum("updateStrategy", DEFAULT_UPDATE_STRATEGY);
+
+  private static final ModConfigSpec.IntValue LIGHT_UPDATE_INTERVAL =
+      BUILDER
+          .comment(
+              "How often (in ticks) light is recalculated for buds that grew in size, 0 to",
+              "recalculate it with every change like vanilla. Each bud is checked once per",
+              "interval however often it grew. Default: " + DEFAULT_LIGHT_UPDATE_INTERVAL)
+          .defineInRange("lightUpdateInterval", DEFAULT_LIGHT_UPDATE_INTERVAL, 0, 100);
+
+  private static final ModConfigSpec.BooleanValue OFFLINE_GROWTH =
+      BUILDER
+          .comment(
+              "Whether budding crystals catch up on growth missed while their chunk was unloaded.",
+              "The missed growth is applied in one pass when the chunk is loaded again.",
+              "Default: " + DEFAULT_OFFLINE_GROWTH)
+          .define("offlineGrowth", DEFAULT_OFFLINE_GROWTH);
+
+  private static final ModConfigSpec.EnumValue<IndexStorage> INDEX_STORAGE =
+      BUILDER
+          .comment(
+              "How the index of budding crystal blocks is saved.",
+              "NBT writes the whole index with the level data on every save.",
+              "JOURNAL appends only the chunks that changed to a binary file per dimension,",
+              "which keeps saves cheap for farms with very many budding blocks.",
+              "Default: " + DEFAULT_INDEX_STORAGE)
+          .defineEnum("indexStorage", DEFAULT_INDEX_STORAGE);
+
+  // Properties for the growth budget
+  private static final ModConfigSpec.IntValue GROWTH_BUDGET =
+      BUILDER
+          .comment(
+              "The maximum number of crystal growths per server tick, 0 for no limit.",
+              "Growths over the budget are deferred to later ticks. Default: "
+                  + DEFAULT_GROWTH_BUDGET)
+          .defineInRange("growthBudget", DEFAULT_GROWTH_BUDGET, 0, 100000);
+
+  private static final ModConfigSpec.IntValue GROWTH_BUDGET_MICROS =
+      BUILDER
+          .comment(
+              "The maximum microseconds spent on crystal growth per server tick, 0 for no limit.",
+              "Growths over the budget are deferred to later ticks. Default: "
+                  + DEFAULT_GROWTH_BUDGET_MICROS)
+          .defineInRange("growthBudgetMicros", DEFAULT_GROWTH_BUDGET_MICROS, 0, 50000);
+
+  private static final ModConfigSpec.IntValue DEFERRED_GROWTH_LIMIT =
+      BUILDER
+          .comment(
+              "How many deferred growths are kept per dimension, further growths are dropped.",
+              "Default: " + DEFAULT_DEFERRED_GROWTH_LIMIT)
+          .defineInRange("deferredGrowthLimit", DEFAULT_DEFERRED_GROWTH_LIMIT, 0, 1000000);
+
+  private static final ModConfigSpec.BooleanValue DETERMINISTIC_GROWTH =
+      BUILDER
+          .comment(
+              "Whether crystal growth rolls with its own random numbers derived from the world",
+              "seed, block position and game time instead of the level's shared random source.",
+              "The same world then grows the same way on every run. Default: "
+                  + DEFAULT_DETERMINISTIC_GROWTH)
+          .define("deterministicGrowth", DEFAULT_DETERMINISTIC_GROWTH);
+
+  // Properties for growth metrics
+  private static final ModConfigSpec.BooleanValue GROWTH_METRICS =
+      BUILDER
+          .comment(
+              "Whether crystal growth work and time is counted per crystal type.",
+              "The counters are shown by /morecrystals stats. Default: " + DEFAULT_GROWTH_METRICS)
+          .define("growthMetrics", DEFAULT_GROWTH_METRICS);
+
+  private static final ModConfigSpec.IntValue METRICS_DUMP_INTERVAL =
+      BUILDER
+          .comment(
+              "How often (in ticks) growth metrics are written out, 0 to never write them.",
+              "Only used while growthMetrics is enabled. Default: " + DEFAULT_METRICS_DUMP_INTERVAL)
+          .defineInRange("metricsDumpInterval", DEFAULT_METRICS_DUMP_INTERVAL, 0, 72000);
+
+  private static final ModConfigSpec.EnumValue<MetricsDumpTarget> METRICS_DUMP_TARGET =
+      BUILDER
+          .comment(
+              "Where growth metrics are written to.",
+              "LOG writes to the server log, CSV appends to logs/morecrystals_metrics.csv.",
+              "Default: " + DEFAULT_METRICS_DUMP_TARGET)
+          .defineEnum("metricsDumpTarget", DEFAULT_METRICS_DUMP_TARGET);
+
+  // Properties for geode pregeneration
+  private static final ModConfigSpec.IntValue PREGEN_CHUNKS_PER_TICK =
+      BUILDER
+          .comment(
+              "How many chunks /morecrystals pregen requests per server tick.",
+              "They generate on the world generation threads. Default: "
+                  + DEFAULT_PREGEN_CHUNKS_PER_TICK)
+          .defineInRange("pregenChunksPerTick", DEFAULT_PREGEN_CHUNKS_PER_TICK, 1, 1000);
+
+  // Properties for crystal accelerators
+  private static final ModConfigSpec.IntValue ACCELERATOR_RANGE =
+      BUILDER
+          .comment(
+              "How many chunk sections around its own a crystal accelerator speeds up.",
+              "0 only covers the accelerator's own 16x16x16 section. Default: "
+                  + DEFAULT_ACCELERATOR_RANGE)
+          .defineInRange("acceleratorRange", DEFAULT_ACCELERATOR_RANGE, 0, 4);
+
+  private static final ModConfigSpec.DoubleValue ACCELERATOR_BOOST =
+      BUILDER
+          .comment(
+              "How much each crystal accelerator in range adds to the growth multiplier.",
+              "Default: " + DEFAULT_ACCELERATOR_BOOST)
+          .defineInRange("acceleratorBoost", DEFAULT_ACCELERATOR_BOOST, 0.0, 16.0);
+
+  private static final ModConfigSpec.DoubleValue ACCELERATOR_MAX_MULTIPLIER =
+      BUILDER
+          .comment(
+              "The highest growth multiplier any number of crystal accelerators can reach.",
+              "Default: " + DEFAULT_ACCELERATOR_MAX_MULTIPLIER)
+          .defineInRange(
+              "acceleratorMaxMultiplier", DEFAULT_ACCELERATOR_MAX_MULTIPLIER, 1.0, 16.0);
+
+  // Per crystal type overrides indexed by quality ordinal, 0 falls back to the global chance
+  private static final Map<String, ModConfigSpec.IntValue[]> GROWTH_CHANCE_OVERRIDES =
+      new HashMap<>();
+  private static final Map<String, ModConfigSpec.IntValue[]> DETERIORATE_CHANCE_OVERRIDES =
+      new HashMap<>();
+
+  static {
+    BUILDER
+        .comment(
+            "Growth and deterioration chances per crystal type and budding quality.",
+            "These override growthChance and deteriorateChance, 0 uses the global value.",
+            "The crystal type's growth and deterioration weights still apply on top.")
+        .push("crystalTypes");
+
+    BuddingCrystalBlock.BuddingQuality[] qualities = BuddingCrystalBlock.BuddingQuality.values();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      BUILDER.push(type.name);
+      ModConfigSpec.IntValue[] growth = new ModConfigSpec.IntValue[qualities.length];
+      ModConfigSpec.IntValue[] deteriorate = new ModConfigSpec.IntValue[qualities.length];
+      for (BuddingCrystalBlock.BuddingQuality quality : qualities) {
+        growth[quality.ordinal()] =
+            BUILDER.defineInRange(quality.getPrefix() + "GrowthChance", 0, 0, 100);
+        // Flawless budding blocks never deteriorate
+        if (quality != BuddingCrystalBlock.BuddingQuality.FLAWLESS) {
+          deteriorate[quality.ordinal()] =
+              BUILDER.defineInRange(quality.getPrefix() + "DeteriorateChance", 0, 0, 100);
+        }
+      }
+      GROWTH_CHANCE_OVERRIDES.put(type.name, growth);
+      DETERIORATE_CHANCE_OVERRIDES.put(type.name, deteriorate);
+      BUILDER.pop();
+    }
+
+    BUILDER.pop();
+  }
+
   public static final ModConfigSpec SPEC = BUILDER.build();
 
   // Runtime values - initialized with defaults and updated when config is loaded
   public static int growthChance = DEFAULT_GROWTH_CHANCE;
   public static int deteriorateChance = DEFAULT_DETERIORATE_CHANCE;
+  public static GrowthMode growthMode = DEFAULT_GROWTH_MODE;
+  public static UpdateStrategy updateStrategy = DEFAULT_UPDATE_STRATEGY;
+  public static int lightUpdateInterval = DEFAULT_LIGHT_UPDATE_INTERVAL;
+  public static boolean offlineGrowth = DEFAULT_OFFLINE_GROWTH;
+  public static IndexStorage indexStorage = DEFAULT_INDEX_STORAGE;
+  public static int growthBudget = DEFAULT_GROWTH_BUDGET;
+  public static int growthBudgetMicros = DEFAULT_GROWTH_BUDGET_MICROS;
+  public static int deferredGrowthLimit = DEFAULT_DEFERRED_GROWTH_LIMIT;
+  public static boolean deterministicGrowth = DEFAULT_DETERMINISTIC_GROWTH;
+  public static boolean growthMetrics = DEFAULT_GROWTH_METRICS;
+  public static int metricsDumpInterval = DEFAULT_METRICS_DUMP_INTERVAL;
+  public static MetricsDumpTarget metricsDumpTarget = DEFAULT_METRICS_DUMP_TARGET;
+  public static int pregenChunksPerTick = DEFAULT_PREGEN_CHUNKS_PER_TICK;
+  public static int acceleratorRange = DEFAULT_ACCELERATOR_RANGE;
+  public static double acceleratorBoost = DEFAULT_ACCELERATOR_BOOST;
+  public static double acceleratorMaxMultiplier = DEFAULT_ACCELERATOR_MAX_MULTIPLIER;
 
   @SubscribeEvent
   public static void onLoad(final ModConfigEvent event) {
     growthChance = GROWTH_CHANCE.get();
     deteriorateChance = DETERIORATE_CHANCE.get();
+    growthMode = GROWTH_MODE.get();
+    updateStrategy = UPDATE_STRATEGY.get();
+    lightUpdateInterval = LIGHT_UPDATE_INTERVAL.get();
+    offlineGrowth = OFFLINE_GROWTH.get();
+    indexStorage = INDEX_STORAGE.get();
+    growthBudget = GROWTH_BUDGET.get();
+    growthBudgetMicros = GROWTH_BUDGET_MICROS.get();
+    deferredGrowthLimit = DEFERRED_GROWTH_LIMIT.get();
+    deterministicGrowth = DETERMINISTIC_GROWTH.get();
+    growthMetrics = GROWTH_METRICS.get();
+    metricsDumpInterval = METRICS_DUMP_INTERVAL.get();
+    metricsDumpTarget = METRICS_DUMP_TARGET.get();
+    pregenChunksPerTick = PREGEN_CHUNKS_PER_TICK.get();
+    acceleratorRange = ACCELERATOR_RANGE.get();
+    acceleratorBoost = ACCELERATOR_BOOST.get();
+    acceleratorMaxMultiplier = ACCELERATOR_MAX_MULTIPLIER.get();
     MoreCrystals.LOGGER.info("Loaded growth chance config: 1 in {}", growthChance);
     MoreCrystals.LOGGER.info("Loaded deteriorate chance config: 1 in {}", deteriorateChance);
+    MoreCrystals.LOGGER.info("Loaded growth mode config: {}", growthMode);
+    MoreCrystals.LOGGER.info("Loaded update strategy config: {}", updateStrategy);
+    MoreCrystals.LOGGER.info("Loaded light update interval config: {}", lightUpdateInterval);
+    MoreCrystals.LOGGER.info("Loaded offline growth config: {}", offlineGrowth);
+    MoreCrystals.LOGGER.info("Loaded index storage config: {}", indexStorage);
+    MoreCrystals.LOGGER.info("Loaded growth budget config: {}", growthBudget);
+    MoreCrystals.LOGGER.info("Loaded growth budget micros config: {}", growthBudgetMicros);
+    MoreCrystals.LOGGER.info("Loaded deferred growth limit config: {}", deferredGrowthLimit);
+    MoreCrystals.LOGGER.info("Loaded deterministic growth config: {}", deterministicGrowth);
+    MoreCrystals.LOGGER.info("Loaded growth metrics config: {}", growthMetrics);
+    MoreCrystals.LOGGER.info("Loaded metrics dump interval config: {}", metricsDumpInterval);
+    MoreCrystals.LOGGER.info("Loaded metrics dump target config: {}", metricsDumpTarget);
+    MoreCrystals.LOGGER.info("Loaded pregen chunks per tick config: {}", pregenChunksPerTick);
+    MoreCrystals.LOGGER.info("Loaded accelerator range config: {}", acceleratorRange);
+    MoreCrystals.LOGGER.info("Loaded accelerator boost config: {}", acceleratorBoost);
+    MoreCrystals.LOGGER.info(
+        "Loaded accelerator max multiplier config: {}", acceleratorMaxMultiplier);
+
+    // Flatten the global and per-type chances into the lookup table used while ticking
+    GrowthRates.resolve();
+  }
+
+  /**
+   * Gets the configured growth chance (1 in X) for a crystal type and quality
+   *
+   * @param type The crystal type
+   * @param quality The budding quality
+   * @return The per-type override if set, otherwise the global growth chance
+   */
+  public static int growthChance(CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return resolveOverride(GROWTH_CHANCE_OVERRIDES.get(type.name), quality, growthChance);
+  }
+
+  /**
+   * Gets the configured deterioration chance (1 in X) for a crystal type and quality
+   *
+   * @param type The crystal type
+   * @param quality The budding quality
+   * @return The per-type override if set, otherwise the global deterioration chance
+   */
+  public static int deteriorateChance(
+      CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return resolveOverride(DETERIORATE_CHANCE_OVERRIDES.get(type.name), quality, deteriorateChance);
+  }
+
+  private static int resolveOverride(
+      ModConfigSpec.IntValue[] overrides,
+      BuddingCrystalBlock.BuddingQuality quality,
+      int globalValue) {
+    // Values can only be read once the config is loaded, before that only defaults apply
+    if (overrides == null || overrides[quality.ordinal()] == null || !SPEC.isLoaded()) {
+      return globalValue;
+    }
+    int override = overrides[quality.ordinal()].get();
+    return override > 0 ? override : globalValue;
   }
 }
@@ -2,49 +2,82 @@ package net.taya.morecrystals;
 
 import java.util.ArrayList;
 import java.util.List;
+import net.minecraft.world.item.BlockItem;
 import net.minecraft.world.item.CreativeModeTabs;
+import net.minecraft.world.item.Item;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.SoundType;
 import net.minecraft.world.level.block.state.BlockBehaviour;
+import net.minecraft.world.level.block.state.BlockState;
 import net.neoforged.neoforge.event.BuildCreativeModeTabContentsEvent;
 import net.neoforged.neoforge.registries.DeferredBlock;
+import net.neoforged.neoforge.registries.DeferredItem;
 import net.taya.morecrystals.blocks.BuddingCrystalBlock;
 import net.taya.morecrystals.blocks.CrystalBlock;
 import net.taya.morecrystals.blocks.CrystalBudBlock;
+import net.taya.morecrystals.blocks.CrystalBudItem;
+import net.taya.morecrystals.blocks.StagedCrystalBudBlock;
+import net.taya.morecrystals.growth.GrowthTable;
 
 /**
- * Base class for all crystal types. Each crystal type represents a set of related crystal blocks
- * (buds, clusters, etc.)
+ * A crystal type, created from a {@link CrystalTypeDefinition}. Each crystal type represents a set
+ * of related crystal blocks (buds, clusters, etc.)
  */
-public abstract class CrystalType {
+public class CrystalType {
   // Track all registered crystal types
-  public static final List<CrystalType> REGISTRY = new ArrayList<>();
+  public static final CrystalTypeRegistry REGISTRY = new CrystalTypeRegistry();
 
   // Fields that every crystal type has
   public final String name;
+  public final int id;
+  public final CrystalTypeDefinition definition;
   public final DeferredBlock<Block> flawlessBuddingBlock;
   public final DeferredBlock<Block> flawedBuddingBlock;
   public final DeferredBlock<Block> chippedBuddingBlock;
   public final DeferredBlock<Block> damagedBuddingBlock;
   public final DeferredBlock<Block> crystalBlock;
+  // With single block buds, all four of these are the same staged block
   public final DeferredBlock<Block> smallBudBlock;
   public final DeferredBlock<Block> mediumBudBlock;
   public final DeferredBlock<Block> largeBudBlock;
   public final DeferredBlock<Block> clusterBlock;
+  // Per-stage bud blocks kept around to migrate old worlds to single block buds, else empty
+  public final List<DeferredBlock<Block>> legacyBudBlocks;
+
+  // Dropped by clusters mined without silk touch
+  public final DeferredItem<Item> shardItem;
+
+  // Bud items indexed by growth stage ordinal
+  private final List<DeferredItem<BlockItem>> budItems;
+
+  // Growth transitions, resolved once the block registry is frozen
+  private GrowthTable growthTable;
 
   /**
    * Constructor for CrystalType
    *
-   * @param name The type name (e.g., "diamond", "redstone")
+   * @param definition The definition of this type, as loaded from the crystal type file
    */
-  protected CrystalType(String name) {
-    this.name = name;
+  public CrystalType(CrystalTypeDefinition definition) {
+    this.name = definition.name();
+    this.definition = definition;
 
     // Register blocks for this crystal type
-    this.smallBudBlock = registerBudBlock("small", CrystalBudBlock.GrowthStage.SMALL);
-    this.mediumBudBlock = registerBudBlock("medium", CrystalBudBlock.GrowthStage.MEDIUM);
-    this.largeBudBlock = registerBudBlock("large", CrystalBudBlock.GrowthStage.LARGE);
-    this.clusterBlock = registerBudBlock("", CrystalBudBlock.GrowthStage.CLUSTER);
+    if (definition.singleBlockBuds()) {
+      DeferredBlock<Block> budBlock = registerStagedBudBlock();
+      this.smallBudBlock = budBlock;
+      this.mediumBudBlock = budBlock;
+      this.largeBudBlock = budBlock;
+      this.clusterBlock = budBlock;
+      this.legacyBudBlocks = definition.legacyBudBlocks() ? registerBudBlocks() : List.of();
+    } else {
+      List<DeferredBlock<Block>> budBlocks = registerBudBlocks();
+      this.smallBudBlock = budBlocks.get(CrystalBudBlock.GrowthStage.SMALL.ordinal());
+      this.mediumBudBlock = budBlocks.get(CrystalBudBlock.GrowthStage.MEDIUM.ordinal());
+      this.largeBudBlock = budBlocks.get(CrystalBudBlock.GrowthStage.LARGE.ordinal());
+      this.clusterBlock = budBlocks.get(CrystalBudBlock.GrowthStage.CLUSTER.ordinal());
+      this.legacyBudBlocks = List.of();
+    }
 
     // Register the base crystal block (non-budding)
     this.crystalBlock =
@@ -63,9 +96,11 @@ public abstract class CrystalType {
 
     // Register all block items
     registerBlockItems();
+    this.budItems = registerBudItems();
+    this.shardItem = MoreCrystals.ITEMS.registerSimpleItem(name + "_shard");
 
     // Register this crystal type in the registry
-    REGISTRY.add(this);
+    this.id = REGISTRY.register(this);
 
     MoreCrystals.LOGGER.info("Registered crystal type: {}", name);
   }
@@ -80,12 +115,35 @@ public abstract class CrystalType {
     registerBlockItem("flawed_budding_" + name, flawedBuddingBlock);
     registerBlockItem("chipped_budding_" + name, chippedBuddingBlock);
     registerBlockItem("damaged_budding_" + name, damagedBuddingBlock);
+  }
 
-    // Register bud block items
-    registerBlockItem("small_" + name + "_bud", smallBudBlock);
-    registerBlockItem("medium_" + name + "_bud", mediumBudBlock);
-    registerBlockItem("large_" + name + "_bud", largeBudBlock);
-    registerBlockItem(name + "_cluster", clusterBlock);
+  /**
+   * Registers one item per bud growth stage. They keep the IDs of the per-stage bud blocks, so
+   * switching to single block buds doesn't change any items.
+   *
+   * @return The bud items indexed by growth stage ordinal
+   */
+  private List<DeferredItem<BlockItem>> registerBudItems() {
+    List<DeferredItem<BlockItem>> items = new ArrayList<>();
+    for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+      String itemId = budId(stage);
+      DeferredBlock<Block> budBlock = getBudBlock(stage);
+      if (definition.singleBlockBuds()) {
+        String descriptionId = "block." + MoreCrystals.MODID + "." + itemId;
+        items.add(
+            MoreCrystals.ITEMS.register(
+                itemId,
+                () ->
+                    new CrystalBudItem(
+                        (StagedCrystalBudBlock) budBlock.get(),
+                        new Item.Properties(),
+                        stage,
+                        descriptionId)));
+      } else {
+        items.add(MoreCrystals.ITEMS.registerSimpleBlockItem(itemId, budBlock));
+      }
+    }
+    return List.copyOf(items);
   }
 
   /**
@@ -98,6 +156,104 @@ public abstract class CrystalType {
     MoreCrystals.ITEMS.registerSimpleBlockItem(blockId, deferredBlock);
   }
 
+  /**
+   * Gets the budding block of the given quality
+   *
+   * @param quality The budding quality
+   * @return The deferred budding block
+   */
+  public DeferredBlock<Block> getBuddingBlock(BuddingCrystalBlock.BuddingQuality quality) {
+    return switch (quality) {
+      case FLAWLESS -> flawlessBuddingBlock;
+      case FLAWED -> flawedBuddingBlock;
+      case CHIPPED -> chippedBuddingBlock;
+      case DAMAGED -> damagedBuddingBlock;
+    };
+  }
+
+  /**
+   * Gets the bud block of the given growth stage
+   *
+   * @param stage The growth stage
+   * @return The deferred bud block, which is the same for every stage with single block buds
+   */
+  public DeferredBlock<Block> getBudBlock(CrystalBudBlock.GrowthStage stage) {
+    return switch (stage) {
+      case SMALL -> smallBudBlock;
+      case MEDIUM -> mediumBudBlock;
+      case LARGE -> largeBudBlock;
+      case CLUSTER -> clusterBlock;
+    };
+  }
+
+  /**
+   * Gets the state of a bud at the given growth stage, facing up
+   *
+   * @param stage The growth stage
+   * @return The bud state
+   */
+  public BlockState getBudState(CrystalBudBlock.GrowthStage stage) {
+    return ((CrystalBudBlock) getBudBlock(stage).get()).stageState(stage);
+  }
+
+  /**
+   * Gets the item of the given bud growth stage
+   *
+   * @param stage The growth stage
+   * @return The deferred bud item
+   */
+  public DeferredItem<BlockItem> getBudItem(CrystalBudBlock.GrowthStage stage) {
+    return budItems.get(stage.ordinal());
+  }
+
+  /**
+   * Gets the ID of the per-stage bud block and item of a growth stage
+   *
+   * @param stage The growth stage
+   * @return The ID, e.g. "small_diamond_bud" or "diamond_cluster"
+   */
+  public String budId(CrystalBudBlock.GrowthStage stage) {
+    return switch (stage) {
+      case SMALL -> "small_" + name + "_bud";
+      case MEDIUM -> "medium_" + name + "_bud";
+      case LARGE -> "large_" + name + "_bud";
+      case CLUSTER -> name + "_cluster";
+    };
+  }
+
+  /**
+   * Gets the precomputed growth transitions for this crystal type. Resolves them on first use if
+   * {@link #resolveGrowthTables()} has not run yet.
+   *
+   * @return The growth table
+   */
+  public GrowthTable getGrowthTable() {
+    GrowthTable table = growthTable;
+    if (table == null) {
+      table = GrowthTable.resolve(this);
+      growthTable = table;
+    }
+    return table;
+  }
+
+  /** Resolves the growth tables of all registered crystal types. Call after block registration. */
+  public static void resolveGrowthTables() {
+    for (CrystalType type : REGISTRY) {
+      type.growthTable = GrowthTable.resolve(type);
+    }
+  }
+
+  /**
+   * Loads all crystal types from the crystal type file and registers their blocks. Must be called
+   * once during mod construction.
+   */
+  public static void loadAll() {
+    for (CrystalTypeDefinition definition : CrystalTypeLoader.load()) {
+      new CrystalType(definition);
+    }
+    REGISTRY.freeze();
+  }
+
   /**
    * Override this method to customize block properties for this crystal type. This allows crystal
    * types to have unique characteristics.
@@ -107,8 +263,8 @@ public abstract class CrystalType {
    */
   protected BlockBehaviour.Properties customizeProperties(
       BlockBehaviour.Properties defaultProperties) {
-    // By default, no customizations are applied
-    return defaultProperties;
+    // By default, only the defined map color is applied
+    return defaultProperties.mapColor(definition.mapColor());
   }
 
   /** Helper method to register a budding crystal block with specific quality */
@@ -128,15 +284,40 @@ public abstract class CrystalType {
     return buddingBlock;
   }
 
+  /** Helper method to register the per-stage bud blocks, in order of growth */
+  private List<DeferredBlock<Block>> registerBudBlocks() {
+    List<DeferredBlock<Block>> budBlocks = new ArrayList<>();
+    for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+      budBlocks.add(registerBudBlock(stage));
+    }
+    return List.copyOf(budBlocks);
+  }
+
   /** Helper method to register a bud block for a crystal type */
-  private DeferredBlock<Block> registerBudBlock(
-      String sizePrefix, CrystalBudBlock.GrowthStage stage) {
-    String blockId = sizePrefix.isEmpty() ? name + "_cluster" : sizePrefix + "_" + name + "_bud";
+  private DeferredBlock<Block> registerBudBlock(CrystalBudBlock.GrowthStage stage) {
+    String blockId = budId(stage);
 
     // Allow crystal types to customize properties
     BlockBehaviour.Properties properties = customizeProperties(BlockBehaviour.Properties.of());
 
-    return MoreCrystals.BLOCKS.register(blockId, () -> new CrystalBudBlock(properties, stage));
+    int lightEmission = definition.lightLevel(stage);
+
+    return MoreCrystals.BLOCKS.register(
+        blockId, () -> new CrystalBudBlock(properties, stage, lightEmission));
+  }
+
+  /** Helper method to register a single bud block that holds every growth stage */
+  private DeferredBlock<Block> registerStagedBudBlock() {
+    BlockBehaviour.Properties properties = customizeProperties(BlockBehaviour.Properties.of());
+
+    CrystalBudBlock.GrowthStage[] stages = CrystalBudBlock.GrowthStage.values();
+    int[] lightLevels = new int[stages.length];
+    for (CrystalBudBlock.GrowthStage stage : stages) {
+      lightLevels[stage.ordinal()] = definition.lightLevel(stage);
+    }
+
+    return MoreCrystals.BLOCKS.register(
+        name + "_bud", () -> new StagedCrystalBudBlock(properties, lightLevels, this::getBudItem));
   }
 
   /**
@@ -155,6 +336,10 @@ public abstract class CrystalType {
       for (CrystalType type : REGISTRY) {
         addNaturalBlocksToTab(event, type);
       }
+    } else if (event.getTabKey() == CreativeModeTabs.INGREDIENTS) {
+      for (CrystalType type : REGISTRY) {
+        event.accept(type.shardItem);
+      }
     }
   }
 
@@ -170,10 +355,9 @@ public abstract class CrystalType {
     event.accept(type.chippedBuddingBlock);
     event.accept(type.damagedBuddingBlock);
     event.accept(type.crystalBlock);
-    event.accept(type.smallBudBlock);
-    event.accept(type.mediumBudBlock);
-    event.accept(type.largeBudBlock);
-    event.accept(type.clusterBlock);
+    for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+      event.accept(type.getBudItem(stage));
+    }
   }
 
   /**
@@ -186,6 +370,6 @@ public abstract class CrystalType {
       BuildCreativeModeTabContentsEvent event, CrystalType type) {
     event.accept(type.flawlessBuddingBlock);
     event.accept(type.crystalBlock);
-    event.accept(type.clusterBlock);
+    event.accept(type.getBudItem(CrystalBudBlock.GrowthStage.CLUSTER));
   }
 }
@@ -0,0 +1,121 @@
+package net.taya.morecrystals;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import net.minecraft.world.level.material.MapColor;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+
+/**
+ * Data-driven definition of a crystal type, as read from the crystal type config file.
+ *
+ * @param name The type name used in block IDs and texture paths (e.g., "diamond")
+ * @param mapColor The map color of all blocks of this type
+ * @param lightLevels Light emission of the small, medium and large buds and the cluster
+ * @param growthWeight Multiplier on the chance that a growth roll passes
+ * @param deteriorationWeight Multiplier on the chance that a budding block deteriorates
+ * @param singleBlockBuds Whether all growth stages share one bud block with a stage property
+ * @param legacyBudBlocks Whether the separate per-stage bud blocks are still registered when
+ *     {@code singleBlockBuds} is on, so worlds that still contain them can be migrated
+ */
+public record CrystalTypeDefinition(
+    String name,
+    MapColor mapColor,
+    List<Integer> lightLevels,
+    float growthWeight,
+    float deteriorationWeight,
+    boolean singleBlockBuds,
+    boolean legacyBudBlocks) {
+
+  private static final List<Integer> DEFAULT_LIGHT_LEVELS =
+      List.of(
+          CrystalBudBlock.GrowthStage.SMALL.getLightEmission(),
+          CrystalBudBlock.GrowthStage.MEDIUM.getLightEmission(),
+          CrystalBudBlock.GrowthStage.LARGE.getLightEmission(),
+          CrystalBudBlock.GrowthStage.CLUSTER.getLightEmission());
+
+  // Map colors by their lowercase field name (e.g., "diamond", "color_red")
+  private static final Map<String, MapColor> MAP_COLORS_BY_NAME = new HashMap<>();
+  private static final Map<MapColor, String> MAP_COLOR_NAMES = new IdentityHashMap<>();
+
+  static {
+    for (Field field : MapColor.class.getFields()) {
+      if (Modifier.isStatic(field.getModifiers()) && field.getType() == MapColor.class) {
+        try {
+          MapColor color = (MapColor) field.get(null);
+          String name = field.getName().toLowerCase(Locale.ROOT);
+          MAP_COLORS_BY_NAME.put(name, color);
+          MAP_COLOR_NAMES.putIfAbsent(color, name);
+        } catch (IllegalAccessException e) {
+          throw new IllegalStateException("Failed to read map color " + field.getName(), e);
+        }
+      }
+    }
+  }
+
+  private static final Codec<MapColor> MAP_COLOR_CODEC =
+      Codec.STRING.comapFlatMap(
+          name -> {
+            MapColor color = MAP_COLORS_BY_NAME.get(name);
+            return color != null
+                ? DataResult.success(color)
+                : DataResult.error(() -> "Unknown map color: " + name);
+          },
+          MAP_COLOR_NAMES::get);
+
+  public static final Codec<CrystalTypeDefinition> CODEC =
+      RecordCodecBuilder.<CrystalTypeDefinition>create(
+              instance ->
+                  instance
+                      .group(
+                          Codec.STRING.fieldOf("name").forGetter(CrystalTypeDefinition::name),
+                          MAP_COLOR_CODEC
+                              .optionalFieldOf("map_color", MapColor.NONE)
+                              .forGetter(CrystalTypeDefinition::mapColor),
+                          Codec.intRange(0, 15)
+                              .listOf()
+                              .optionalFieldOf("light_levels", DEFAULT_LIGHT_LEVELS)
+                              .forGetter(CrystalTypeDefinition::lightLevels),
+                          Codec.floatRange(0.0F, 100.0F)
+                              .optionalFieldOf("growth_weight", 1.0F)
+                              .forGetter(CrystalTypeDefinition::growthWeight),
+                          Codec.floatRange(0.0F, 100.0F)
+                              .optionalFieldOf("deterioration_weight", 1.0F)
+                              .forGetter(CrystalTypeDefinition::deteriorationWeight),
+                          Codec.BOOL
+                              .optionalFieldOf("single_block_buds", false)
+                              .forGetter(CrystalTypeDefinition::singleBlockBuds),
+                          Codec.BOOL
+                              .optionalFieldOf("legacy_bud_blocks", true)
+                              .forGetter(CrystalTypeDefinition::legacyBudBlocks))
+                      .apply(instance, CrystalTypeDefinition::new))
+          .validate(CrystalTypeDefinition::validate);
+
+  private static DataResult<CrystalTypeDefinition> validate(CrystalTypeDefinition definition) {
+    if (!definition.name.matches("[a-z0-9_]+")) {
+      return DataResult.error(() -> "Invalid crystal type name: " + definition.name);
+    }
+    if (definition.lightLevels.size() != CrystalBudBlock.GrowthStage.values().length) {
+      return DataResult.error(
+          () -> "Crystal type " + definition.name + " needs one light level per growth stage");
+    }
+    return DataResult.success(definition);
+  }
+
+  /**
+   * Gets the light emission of a bud at a growth stage
+   *
+   * @param stage The growth stage
+   * @return The light level
+   */
+  public int lightLevel(CrystalBudBlock.GrowthStage stage) {
+    return lightLevels.get(stage.ordinal());
+  }
+}
@@ -0,0 +1,84 @@
+package net.taya.morecrystals;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParser;
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.JsonOps;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import net.neoforged.fml.loading.FMLPaths;
+
+/**
+ * Loads the crystal type definitions from {@code config/morecrystals/crystal_types.json}. If the
+ * file does not exist yet, it is created from the defaults bundled with the mod.
+ */
+public final class CrystalTypeLoader {
+  private static final String DEFAULTS_RESOURCE = "/morecrystals/crystal_types.json";
+
+  private static final Codec<List<CrystalTypeDefinition>> FILE_CODEC =
+      CrystalTypeDefinition.CODEC.listOf().fieldOf("crystal_types").codec();
+
+  private CrystalTypeLoader() {}
+
+  /**
+   * Loads the crystal type definitions from the config directory
+   *
+   * @return The definitions in file order
+   */
+  public static List<CrystalTypeDefinition> load() {
+    Path file = FMLPaths.CONFIGDIR.get().resolve(MoreCrystals.MODID).resolve("crystal_types.json");
+
+    try {
+      if (Files.notExists(file)) {
+        Files.createDirectories(file.getParent());
+        try (InputStream defaults = openDefaults()) {
+          Files.copy(defaults, file);
+        }
+        MoreCrystals.LOGGER.info("Created default crystal type file at {}", file);
+      }
+
+      try (Reader reader = Files.newBufferedReader(file)) {
+        return parse(JsonParser.parseReader(reader), file.toString());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to load crystal types from " + file, e);
+    }
+  }
+
+  /**
+   * Reads the default crystal type definitions bundled with the mod
+   *
+   * @return The default definitions
+   */
+  public static List<CrystalTypeDefinition> loadDefaults() {
+    try (InputStream defaults = openDefaults()) {
+      Reader reader = new InputStreamReader(defaults, StandardCharsets.UTF_8);
+      return parse(JsonParser.parseReader(reader), "defaults");
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to load default crystal types", e);
+    }
+  }
+
+  private static InputStream openDefaults() throws IOException {
+    InputStream stream = CrystalTypeLoader.class.getResourceAsStream(DEFAULTS_RESOURCE);
+    if (stream == null) {
+      throw new IOException("Missing bundled resource " + DEFAULTS_RESOURCE);
+    }
+    return stream;
+  }
+
+  private static List<CrystalTypeDefinition> parse(JsonElement json, String source) {
+    return FILE_CODEC
+        .parse(JsonOps.INSTANCE, json)
+        .getOrThrow(
+            message ->
+                new IllegalStateException("Invalid crystal types in " + source + ": " + message));
+  }
+}
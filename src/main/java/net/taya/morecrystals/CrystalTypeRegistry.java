@@ -0,0 +1,72 @@
+package net.taya.morecrystals;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Array-backed registry of all crystal types. Types are registered once at startup and the
+ * registry is frozen afterwards, so lookups by id are a single array load no matter how many types
+ * there are.
+ */
+public final class CrystalTypeRegistry implements Iterable<CrystalType> {
+  private CrystalType[] types = new CrystalType[0];
+  private final Map<String, CrystalType> byName = new HashMap<>();
+  private boolean frozen;
+
+  /**
+   * Registers a crystal type
+   *
+   * @param type The crystal type
+   * @return The id assigned to the type
+   */
+  int register(CrystalType type) {
+    if (frozen) {
+      throw new IllegalStateException("Crystal types must be registered during mod construction");
+    }
+    if (byName.putIfAbsent(type.name, type) != null) {
+      throw new IllegalArgumentException("Duplicate crystal type: " + type.name);
+    }
+
+    types = Arrays.copyOf(types, types.length + 1);
+    types[types.length - 1] = type;
+    return types.length - 1;
+  }
+
+  /** Prevents any further crystal types from being registered */
+  void freeze() {
+    frozen = true;
+  }
+
+  /**
+   * Gets a crystal type by id
+   *
+   * @param id The id of the type
+   * @return The crystal type
+   */
+  public CrystalType get(int id) {
+    return types[id];
+  }
+
+  /**
+   * Gets a crystal type by name
+   *
+   * @param name The type name
+   * @return The crystal type, or null if there is none with that name
+   */
+  @Nullable
+  public CrystalType get(String name) {
+    return byName.get(name);
+  }
+
+  public int size() {
+    return types.length;
+  }
+
+  @Override
+  public Iterator<CrystalType> iterator() {
+    return Arrays.asList(types).iterator();
+  }
+}
@@ -1,13 +1,25 @@
 package net.taya.morecrystals;
 
 import com.mojang.logging.LogUtils;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.world.item.BlockItem;
+import net.minecraft.world.item.CreativeModeTabs;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.levelgen.feature.Feature;
 import net.neoforged.bus.api.IEventBus;
 import net.neoforged.fml.ModContainer;
 import net.neoforged.fml.common.Mod;
 import net.neoforged.fml.config.ModConfig;
+import net.neoforged.fml.event.lifecycle.FMLCommonSetupEvent;
 import net.neoforged.neoforge.event.BuildCreativeModeTabContentsEvent;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.neoforged.neoforge.registries.DeferredHolder;
+import net.neoforged.neoforge.registries.DeferredItem;
 import net.neoforged.neoforge.registries.DeferredRegister;
-import net.taya.morecrystals.crystaltypes.*;
+import net.taya.morecrystals.blocks.BudMigration;
+import net.taya.morecrystals.blocks.CrystalAcceleratorBlock;
+import net.taya.morecrystals.worldgen.CrystalGeodeConfiguration;
+import net.taya.morecrystals.worldgen.CrystalGeodeFeature;
 import org.slf4j.Logger;
 
 @Mod(MoreCrystals.MODID)
@@ -17,22 +29,46 @@ public class MoreCrystals {
 
   public static final DeferredRegister.Blocks BLOCKS = DeferredRegister.createBlocks(MODID);
   public static final DeferredRegister.Items ITEMS = DeferredRegister.createItems(MODID);
+  public static final DeferredRegister<Feature<?>> FEATURES =
+      DeferredRegister.create(Registries.FEATURE, MODID);
+
+  public static final DeferredHolder<Feature<?>, CrystalGeodeFeature> CRYSTAL_GEODE =
+      FEATURES.register(
+          "crystal_geode", () -> new CrystalGeodeFeature(CrystalGeodeConfiguration.CODEC));
+
+  public static final DeferredBlock<Block> CRYSTAL_ACCELERATOR =
+      BLOCKS.register(
+          "crystal_accelerator",
+          () -> new CrystalAcceleratorBlock(CrystalAcceleratorBlock.createStandardProperties()));
+  public static final DeferredItem<BlockItem> CRYSTAL_ACCELERATOR_ITEM =
+      ITEMS.registerSimpleBlockItem(CRYSTAL_ACCELERATOR);
 
   public MoreCrystals(IEventBus modEventBus, ModContainer modContainer) {
-    // Register blocks and items
+    // Register blocks, items and world generation features
     BLOCKS.register(modEventBus);
     ITEMS.register(modEventBus);
+    FEATURES.register(modEventBus);
 
-    new DiamondCrystalType();
-    new RedstoneCrystalType();
+    // Load crystal types from the crystal type file and register their blocks
+    CrystalType.loadAll();
 
+    modEventBus.addListener(this::commonSetup);
     modEventBus.addListener(this::addCreative);
 
     // Register config
     modContainer.registerConfig(ModConfig.Type.COMMON, Config.SPEC);
   }
 
+  private void commonSetup(FMLCommonSetupEvent event) {
+    // Registries are frozen by now, so growth transitions can be resolved once
+    CrystalType.resolveGrowthTables();
+    BudMigration.resolve();
+  }
+
   private void addCreative(BuildCreativeModeTabContentsEvent event) {
     CrystalType.addItemsToCreativeTabs(event);
+    if (event.getTabKey() == CreativeModeTabs.FUNCTIONAL_BLOCKS) {
+      event.accept(CRYSTAL_ACCELERATOR_ITEM);
+    }
   }
 }
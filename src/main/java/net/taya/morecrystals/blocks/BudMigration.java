@@ -0,0 +1,86 @@
+package net.taya.morecrystals.blocks;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+
+/**
+ * Moves buds of crystal types that switched to single block buds over to the staged bud block.
+ *
+ * <p>While a type keeps its legacy bud blocks registered, chunks saved with them still load. Every
+ * loaded chunk whose palette contains a legacy bud has those buds replaced by the matching staged
+ * state, so worlds convert as they are explored. Sections without legacy buds are skipped by a
+ * palette check without looking at their blocks.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class BudMigration {
+  private static final int SECTION_SIZE = 16;
+
+  // Maps every legacy bud state to its staged replacement; replaced as a whole, never modified
+  private static volatile Reference2ReferenceOpenHashMap<BlockState, BlockState> replacements =
+      new Reference2ReferenceOpenHashMap<>();
+
+  private BudMigration() {}
+
+  /** Resolves the legacy bud replacements of all crystal types. Call after block registration. */
+  public static void resolve() {
+    Reference2ReferenceOpenHashMap<BlockState, BlockState> resolved =
+        new Reference2ReferenceOpenHashMap<>();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      for (DeferredBlock<Block> legacyBudBlock : type.legacyBudBlocks) {
+        CrystalBudBlock budBlock = (CrystalBudBlock) legacyBudBlock.get();
+        for (BlockState state : budBlock.getStateDefinition().getPossibleStates()) {
+          BlockState replacement =
+              type.getBudState(budBlock.getGrowthStage(state))
+                  .setValue(CrystalBudBlock.FACING, state.getValue(CrystalBudBlock.FACING))
+                  .setValue(
+                      CrystalBudBlock.WATERLOGGED, state.getValue(CrystalBudBlock.WATERLOGGED));
+          resolved.put(state, replacement);
+        }
+      }
+    }
+    resolved.trim();
+    replacements = resolved;
+  }
+
+  @SubscribeEvent
+  public static void onChunkLoad(ChunkEvent.Load event) {
+    Reference2ReferenceOpenHashMap<BlockState, BlockState> map = replacements;
+    if (map.isEmpty() || event.isNewChunk() || event.getLevel().isClientSide()) {
+      return;
+    }
+
+    ChunkAccess chunk = event.getChunk();
+    int migrated = 0;
+    for (LevelChunkSection section : chunk.getSections()) {
+      if (section.hasOnlyAir() || !section.maybeHas(map::containsKey)) {
+        continue;
+      }
+      for (int y = 0; y < SECTION_SIZE; y++) {
+        for (int z = 0; z < SECTION_SIZE; z++) {
+          for (int x = 0; x < SECTION_SIZE; x++) {
+            BlockState replacement = map.get(section.getBlockState(x, y, z));
+            if (replacement != null) {
+              section.setBlockState(x, y, z, replacement);
+              migrated++;
+            }
+          }
+        }
+      }
+    }
+
+    if (migrated > 0) {
+      chunk.setUnsaved(true);
+      MoreCrystals.LOGGER.debug(
+          "Migrated {} legacy crystal buds in chunk {}", migrated, chunk.getPos());
+    }
+  }
+}
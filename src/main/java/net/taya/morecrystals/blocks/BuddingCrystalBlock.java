@@ -5,12 +5,25 @@ import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.util.RandomSource;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelWriter;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockBehaviour;
 import net.minecraft.world.level.block.state.BlockState;
-import net.neoforged.neoforge.registries.DeferredBlock;
+import net.minecraft.world.level.storage.loot.LootParams;
 import net.taya.morecrystals.Config;
 import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.growth.BuddingCrystalIndex;
+import net.taya.morecrystals.growth.GrowthBudget;
+import net.taya.morecrystals.growth.GrowthMetrics;
+import net.taya.morecrystals.growth.GrowthRandom;
+import net.taya.morecrystals.growth.GrowthRates;
+import net.taya.morecrystals.growth.GrowthScheduler;
+import net.taya.morecrystals.growth.GrowthTable;
+import net.taya.morecrystals.growth.GrowthUpdates;
+import net.taya.morecrystals.growth.HarvestQueue;
 
 /**
  * Represents a budding crystal block that can grow crystal buds on adjacent faces during random
@@ -21,9 +34,13 @@ import net.taya.morecrystals.CrystalType;
  * - CHIPPED: Can deteriorate to DAMAGED after growing buds - DAMAGED: Can deteriorate to a normal
  * crystal block after growing buds
  *
- * <p>The growth and deterioration chances are configurable via the mod's config.
+ * <p>The growth and deterioration chances are configurable via the mod's config. Growth is either
+ * driven by random ticks or, in scheduled mode, by the {@link GrowthScheduler}.
  */
 public class BuddingCrystalBlock extends Block {
+  // Cached copy of Direction.values(), which clones the array on every call
+  private static final Direction[] DIRECTIONS = Direction.values();
+
   /** The crystal type this budding block belongs to */
   public final CrystalType crystalType;
 
@@ -87,115 +104,216 @@ public class BuddingCrystalBlock extends Block {
 
   @Override
   public void randomTick(BlockState state, ServerLevel level, BlockPos pos, RandomSource random) {
-    // Check if growth should occur based on config chance
-    if (random.nextInt(Config.growthChance) != 0) {
-      return;
+    long start = GrowthMetrics.start();
+    if (Config.growthMode != Config.GrowthMode.RANDOM_TICK) {
+      // The scheduler or planner owns growth; random ticks only make sure the block is indexed
+      BuddingCrystalIndex.get(level).add(pos, this);
+    } else {
+      RandomSource growthRandom = GrowthRandom.at(level, pos, random);
+      if (rollGrowth(growthRandom)) {
+        GrowthMetrics.increment(crystalType, GrowthMetrics.Metric.ROLLS_PASSED);
+        // Growth over this tick's budget is deferred to a later tick
+        GrowthBudget.growAccelerated(level, pos, this, growthRandom);
+      }
     }
+    GrowthMetrics.recordTick(crystalType, start);
+  }
 
-    // Select random direction for growth
-    Direction direction = Direction.values()[random.nextInt(Direction.values().length)];
-    BlockPos growPos = pos.relative(direction);
-    BlockState targetState = level.getBlockState(growPos);
+  @Override
+  protected void onPlace(
+      BlockState state, Level level, BlockPos pos, BlockState oldState, boolean movedByPiston) {
+    super.onPlace(state, level, pos, oldState, movedByPiston);
+    if (level instanceof ServerLevel serverLevel) {
+      BuddingCrystalIndex.get(serverLevel).add(pos, this);
+    }
+  }
+
+  @Override
+  protected void onRemove(
+      BlockState state, Level level, BlockPos pos, BlockState newState, boolean movedByPiston) {
+    if (!state.is(newState.getBlock()) && level instanceof ServerLevel serverLevel) {
+      BuddingCrystalIndex.get(serverLevel).remove(pos, this);
+    }
+    super.onRemove(state, level, pos, newState, movedByPiston);
+  }
+
+  // Budding blocks with an unchanged loot table skip loot table evaluation
+  @Override
+  protected List<ItemStack> getDrops(BlockState state, LootParams.Builder params) {
+    List<ItemStack> drops = CrystalDrops.drops(state, params);
+    return drops != null ? drops : super.getDrops(state, params);
+  }
 
-    // Try to grow a crystal at the target position
-    boolean grew = growCrystal(level, growPos, targetState, direction);
+  /**
+   * Runs a single growth roll for this budding block. Only needs block read and write access, so
+   * it can also be driven outside a {@link ServerLevel} (e.g. by the benchmarks).
+   *
+   * @param level The level to grow in
+   * @param pos The position of this budding block
+   * @param random The random source to roll with
+   * @return true if a bud was grown or advanced, false otherwise
+   */
+  public <L extends BlockGetter & LevelWriter> boolean growthTick(
+      L level, BlockPos pos, RandomSource random) {
+    return rollGrowth(random) && attemptGrowth(level, pos, random);
+  }
+
+  /**
+   * Rolls whether a random tick grows this budding block
+   *
+   * @param random The random source to roll with
+   * @return true if the roll passed
+   */
+  public boolean rollGrowth(RandomSource random) {
+    // Check if growth should occur based on the chance for this crystal type and quality
+    return random.nextFloat() < GrowthRates.growthChance(crystalType, quality);
+  }
+
+  /**
+   * Grows or advances a bud on a random face as if the growth chance roll already passed, then
+   * rolls for deterioration. Used directly by callers that sample the growth roll themselves.
+   *
+   * @param level The level to grow in
+   * @param pos The position of this budding block
+   * @param random The random source to roll with
+   * @return true if a bud was grown or advanced, false otherwise
+   */
+  public <L extends BlockGetter & LevelWriter> boolean attemptGrowth(
+      L level, BlockPos pos, RandomSource random) {
+    // Select random direction for growth
+    Direction direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+    boolean grew = growToward(level, pos, direction);
 
     // If growth occurred, check for deterioration based on quality
-    if (grew
-        && quality != BuddingQuality.FLAWLESS
-        && random.nextInt(Config.deteriorateChance) == 0) {
+    if (grew && rollDeterioration(random)) {
       deteriorateBlock(level, pos);
     }
+
+    return grew;
+  }
+
+  /**
+   * Grows or advances a bud with rolls that were made in advance, e.g. on a planning thread
+   *
+   * @param level The level to grow in
+   * @param pos The position of this budding block
+   * @param direction The face to grow on
+   * @param deteriorate Whether the deterioration roll passed, see {@link #rollDeterioration}
+   * @return true if a bud was grown or advanced, false otherwise
+   */
+  public <L extends BlockGetter & LevelWriter> boolean applyPlannedGrowth(
+      L level, BlockPos pos, Direction direction, boolean deteriorate) {
+    boolean grew = growToward(level, pos, direction);
+    if (grew && deteriorate) {
+      deteriorateBlock(level, pos);
+    }
+    return grew;
+  }
+
+  /**
+   * Rolls the deterioration that follows a growth of this budding block
+   *
+   * @param random The random source to roll with
+   * @return true if the block deteriorates, should it grow
+   */
+  public boolean rollDeterioration(RandomSource random) {
+    return quality != BuddingQuality.FLAWLESS
+        && random.nextFloat() < GrowthRates.deteriorateChance(crystalType, quality);
+  }
+
+  private <L extends BlockGetter & LevelWriter> boolean growToward(
+      L level, BlockPos pos, Direction direction) {
+    count(level, GrowthMetrics.Metric.ATTEMPTS);
+    BlockPos growPos = pos.relative(direction);
+    return growCrystal(level, growPos, level.getBlockState(growPos), direction);
   }
 
   /**
-   * Gets the ordered list of crystal growth stages
+   * Checks whether a growth attempt could change anything, i.e. whether any face has room for a
+   * new bud or a bud of this crystal type that can still grow
    *
-   * @return List of crystal bud blocks in order of growth progression
+   * @param level The level to check in
+   * @param pos The position of this budding block
+   * @return true if at least one face can grow
    */
-  private List<DeferredBlock<Block>> getGrowthStages() {
-    return List.of(
-        crystalType.smallBudBlock,
-        crystalType.mediumBudBlock,
-        crystalType.largeBudBlock,
-        crystalType.clusterBlock);
+  public boolean canGrow(BlockGetter level, BlockPos pos) {
+    GrowthTable table = crystalType.getGrowthTable();
+    BlockPos.MutableBlockPos growPos = new BlockPos.MutableBlockPos();
+    for (Direction direction : DIRECTIONS) {
+      BlockState targetState = level.getBlockState(growPos.setWithOffset(pos, direction));
+      if (targetState.isAir() || table.nextStage(targetState) != null) {
+        return true;
+      }
+    }
+    return false;
   }
 
   /**
    * Attempts to advance the growth stage of an existing crystal bud
    *
-   * @param level The server level
+   * @param level The level to grow in
    * @param growPos The position of the bud
    * @param targetState The current block state at the position
-   * @param targetBlock The block at the position
    * @return true if growth advanced, false otherwise
    */
-  private boolean advanceExistingBud(
-      ServerLevel level, BlockPos growPos, BlockState targetState, Block targetBlock) {
-    List<DeferredBlock<Block>> growthStages = getGrowthStages();
-
-    // Check each growth stage (except the final one) for possible advancement
-    for (int i = 0; i < growthStages.size() - 1; i++) {
-      if (targetBlock == growthStages.get(i).get()) {
-        // Get the next growth stage
-        DeferredBlock<Block> nextStage = growthStages.get(i + 1);
-        level.setBlock(
-            growPos,
-            nextStage
-                .get()
-                .defaultBlockState()
-                .setValue(CrystalBudBlock.FACING, targetState.getValue(CrystalBudBlock.FACING)),
-            3);
-        return true;
-      }
+  private boolean advanceExistingBud(LevelWriter level, BlockPos growPos, BlockState targetState) {
+    // The table only holds non-final stages of this crystal type, so anything else is a miss
+    BlockState nextState = crystalType.getGrowthTable().nextStage(targetState);
+    if (nextState == null) {
+      return false;
     }
 
-    return false;
+    // Only the size changes, the bud stays attached to the same face
+    GrowthUpdates.setBlock(level, growPos, nextState, false);
+    count(level, GrowthMetrics.Metric.BUDS_ADVANCED);
+
+    // Queue finished clusters so automation doesn't have to poll every face
+    if (level instanceof ServerLevel serverLevel
+        && nextState.getBlock() instanceof CrystalBudBlock bud
+        && bud.getGrowthStage(nextState) == CrystalBudBlock.GrowthStage.CLUSTER) {
+      HarvestQueue.clusterGrown(serverLevel, growPos.immutable(), nextState);
+    }
+    return true;
   }
 
   /**
    * Attempts to grow a crystal at the target position
    *
-   * @param level The server level
+   * @param level The level to grow in
    * @param growPos The position to grow at
    * @param targetState The current block state at the position
    * @param direction The direction of growth
    * @return true if growth occurred, false otherwise
    */
   private boolean growCrystal(
-      ServerLevel level, BlockPos growPos, BlockState targetState, Direction direction) {
+      LevelWriter level, BlockPos growPos, BlockState targetState, Direction direction) {
     // Handle the case where the target position is air (initialize new bud)
     if (targetState.isAir()) {
-      level.setBlock(
-          growPos,
-          crystalType
-              .smallBudBlock
-              .get()
-              .defaultBlockState()
-              .setValue(CrystalBudBlock.FACING, direction),
-          3);
+      GrowthUpdates.setBlock(level, growPos, crystalType.getGrowthTable().newBud(direction), true);
+      count(level, GrowthMetrics.Metric.BUDS_CREATED);
       return true;
     }
 
     // Handle growth progression for existing buds
-    Block targetBlock = targetState.getBlock();
-    return advanceExistingBud(level, growPos, targetState, targetBlock);
+    return advanceExistingBud(level, growPos, targetState);
   }
 
   // Helper method to handle block deterioration by replacing this block with lower quality or base
   // block
-  private void deteriorateBlock(ServerLevel level, BlockPos pos) {
+  private void deteriorateBlock(LevelWriter level, BlockPos pos) {
     // Get the next deteriorated block state based on current quality
-    BlockState deterioratedState =
-        switch (quality) {
-          case FLAWED -> crystalType.chippedBuddingBlock.get().defaultBlockState();
-          case CHIPPED -> crystalType.damagedBuddingBlock.get().defaultBlockState();
-          case DAMAGED -> crystalType.crystalBlock.get().defaultBlockState();
-          default -> null; // FLAWLESS never deteriorates
-        };
+    BlockState deterioratedState = crystalType.getGrowthTable().deteriorated(quality);
 
     if (deterioratedState != null) {
-      level.setBlock(pos, deterioratedState, 3);
+      GrowthUpdates.setBlock(level, pos, deterioratedState, true);
+      count(level, GrowthMetrics.Metric.DETERIORATIONS);
+    }
+  }
+
+  // Growth in overlays like the simulation's isn't live growth, so it stays out of the metrics
+  private void count(LevelWriter level, GrowthMetrics.Metric metric) {
+    if (level instanceof ServerLevel) {
+      GrowthMetrics.increment(crystalType, metric);
     }
   }
 }
@@ -0,0 +1,46 @@
+package net.taya.morecrystals.blocks;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.SoundType;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+import net.minecraft.world.level.block.state.BlockState;
+import net.taya.morecrystals.growth.AcceleratorIndex;
+
+/**
+ * Speeds up the growth of every budding crystal within range. The block itself never ticks; it
+ * only registers its influence in the level's {@link AcceleratorIndex} when placed or removed.
+ */
+public class CrystalAcceleratorBlock extends Block {
+
+  public CrystalAcceleratorBlock(BlockBehaviour.Properties properties) {
+    super(properties);
+  }
+
+  public static BlockBehaviour.Properties createStandardProperties() {
+    return BlockBehaviour.Properties.of()
+        .strength(3.0F)
+        .sound(SoundType.AMETHYST)
+        .lightLevel(state -> 7);
+  }
+
+  @Override
+  protected void onPlace(
+      BlockState state, Level level, BlockPos pos, BlockState oldState, boolean movedByPiston) {
+    super.onPlace(state, level, pos, oldState, movedByPiston);
+    if (level instanceof ServerLevel serverLevel) {
+      AcceleratorIndex.get(serverLevel).add(pos);
+    }
+  }
+
+  @Override
+  protected void onRemove(
+      BlockState state, Level level, BlockPos pos, BlockState newState, boolean movedByPiston) {
+    if (!state.is(newState.getBlock()) && level instanceof ServerLevel serverLevel) {
+      AcceleratorIndex.get(serverLevel).remove(pos);
+    }
+    super.onRemove(state, level, pos, newState, movedByPiston);
+  }
+}
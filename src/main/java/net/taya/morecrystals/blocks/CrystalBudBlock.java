@@ -1,13 +1,13 @@
 package net.taya.morecrystals.blocks;
 
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.List;
+import java.util.function.ToIntFunction;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
+import net.minecraft.world.item.ItemStack;
 import net.minecraft.world.item.context.BlockPlaceContext;
 import net.minecraft.world.level.BlockGetter;
 import net.minecraft.world.level.LevelAccessor;
-import net.minecraft.world.level.LevelReader;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
 import net.minecraft.world.level.block.SimpleWaterloggedBlock;
@@ -21,6 +21,7 @@ import net.minecraft.world.level.block.state.properties.DirectionProperty;
 import net.minecraft.world.level.material.FluidState;
 import net.minecraft.world.level.material.Fluids;
 import net.minecraft.world.level.material.PushReaction;
+import net.minecraft.world.level.storage.loot.LootParams;
 import net.minecraft.world.phys.shapes.CollisionContext;
 import net.minecraft.world.phys.shapes.VoxelShape;
 import org.jetbrains.annotations.NotNull;
@@ -32,6 +33,9 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
 
   private final GrowthStage growthStage;
 
+  // The growth stage's shapes indexed by FACING ordinal, resolved once for all states
+  private final VoxelShape[] shapeByFacing;
+
   public enum GrowthStage {
     SMALL(1, 1, 8, 3),
     MEDIUM(2, 2, 10, 4),
@@ -40,7 +44,8 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
 
     private final int level;
     private final int lightEmission;
-    private final Map<Direction, VoxelShape> shapes;
+    // Shapes indexed by Direction ordinal, shared by the buds of every crystal type
+    private final VoxelShape[] shapes;
 
     GrowthStage(int level, int lightEmission, int width, int height) {
       this.level = level;
@@ -49,36 +54,34 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
     }
 
     /**
-     * Creates a map of direction to shape for a specific width and height
+     * Creates the shapes for a specific width and height, one per facing direction
      *
      * @param width Width of the shape in pixels
      * @param height Height of the shape in pixels
-     * @return Map of directions to VoxelShapes
+     * @return Array of VoxelShapes indexed by Direction ordinal
      */
-    private Map<Direction, VoxelShape> createShapesForSize(int width, int height) {
-      Map<Direction, VoxelShape> result = new EnumMap<>(Direction.class);
+    private static VoxelShape[] createShapesForSize(int width, int height) {
+      VoxelShape[] result = new VoxelShape[Direction.values().length];
       double inset = (16.0D - width) / 2.0D;
 
-      result.put(Direction.UP, Block.box(inset, 0.0D, inset, 16.0D - inset, height, 16.0D - inset));
-      result.put(
-          Direction.DOWN,
-          Block.box(inset, 16.0D - height, inset, 16.0D - inset, 16.0D, 16.0D - inset));
-      result.put(
-          Direction.NORTH,
-          Block.box(inset, inset, 16.0D - height, 16.0D - inset, 16.0D - inset, 16.0D));
-      result.put(
-          Direction.SOUTH, Block.box(inset, inset, 0.0D, 16.0D - inset, 16.0D - inset, height));
-      result.put(
-          Direction.EAST, Block.box(0.0D, inset, inset, height, 16.0D - inset, 16.0D - inset));
-      result.put(
-          Direction.WEST,
-          Block.box(16.0D - height, inset, inset, 16.0D, 16.0D - inset, 16.0D - inset));
+      result[Direction.UP.ordinal()] =
+          Block.box(inset, 0.0D, inset, 16.0D - inset, height, 16.0D - inset);
+      result[Direction.DOWN.ordinal()] =
+          Block.box(inset, 16.0D - height, inset, 16.0D - inset, 16.0D, 16.0D - inset);
+      result[Direction.NORTH.ordinal()] =
+          Block.box(inset, inset, 16.0D - height, 16.0D - inset, 16.0D - inset, 16.0D);
+      result[Direction.SOUTH.ordinal()] =
+          Block.box(inset, inset, 0.0D, 16.0D - inset, 16.0D - inset, height);
+      result[Direction.EAST.ordinal()] =
+          Block.box(0.0D, inset, inset, height, 16.0D - inset, 16.0D - inset);
+      result[Direction.WEST.ordinal()] =
+          Block.box(16.0D - height, inset, inset, 16.0D, 16.0D - inset, 16.0D - inset);
 
       return result;
     }
 
     public VoxelShape getShape(Direction direction) {
-      return shapes.get(direction);
+      return shapes[direction.ordinal()];
     }
 
     public int getLevel() {
@@ -91,14 +94,34 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
   }
 
   public CrystalBudBlock(BlockBehaviour.Properties properties, GrowthStage growthStage) {
+    this(properties, growthStage, growthStage.getLightEmission());
+  }
+
+  public CrystalBudBlock(
+      BlockBehaviour.Properties properties, GrowthStage growthStage, int lightEmission) {
+    this(properties, growthStage, state -> lightEmission);
+  }
+
+  /**
+   * Constructor for bud blocks whose light emission depends on the state
+   *
+   * @param properties The block properties
+   * @param growthStage The growth stage of the default state
+   * @param lightEmission Light emission per state
+   */
+  protected CrystalBudBlock(
+      BlockBehaviour.Properties properties,
+      GrowthStage growthStage,
+      ToIntFunction<BlockState> lightEmission) {
     super(
         properties
             .noOcclusion()
-            .lightLevel(state -> growthStage.getLightEmission())
+            .lightLevel(lightEmission)
             .sound(SoundType.AMETHYST_CLUSTER)
             .strength(1.5F));
 
     this.growthStage = growthStage;
+    this.shapeByFacing = growthStage.shapes;
     this.registerDefaultState(
         this.stateDefinition
             .any()
@@ -106,6 +129,36 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
             .setValue(WATERLOGGED, Boolean.FALSE));
   }
 
+  /**
+   * Gets the growth stage of a state of this block
+   *
+   * @param state A state of this block
+   * @return The growth stage
+   */
+  public GrowthStage getGrowthStage(BlockState state) {
+    return growthStage;
+  }
+
+  /**
+   * Gets the default state of this block at a growth stage
+   *
+   * @param stage The growth stage, which must be one this block can show
+   * @return The state facing up
+   */
+  public BlockState stageState(GrowthStage stage) {
+    return defaultBlockState();
+  }
+
+  /**
+   * Gets the outline and collision shape of a state
+   *
+   * @param state A state of this block
+   * @return The shape
+   */
+  protected VoxelShape shape(BlockState state) {
+    return shapeByFacing[state.getValue(FACING).ordinal()];
+  }
+
   @Override
   protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
     builder.add(FACING, WATERLOGGED);
@@ -117,7 +170,25 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
       @NotNull BlockGetter level,
       @NotNull BlockPos pos,
       @NotNull CollisionContext context) {
-    return growthStage.getShape(state.getValue(FACING));
+    return shape(state);
+  }
+
+  // Collision uses the same shape, but skips the generic path that routes through getShape
+  @Override
+  protected @NotNull VoxelShape getCollisionShape(
+      BlockState state,
+      @NotNull BlockGetter level,
+      @NotNull BlockPos pos,
+      @NotNull CollisionContext context) {
+    return shape(state);
+  }
+
+  // Raytraces refine their hit face with this shape, so use the bud's shape instead of none.
+  // Occlusion needs no override, noOcclusion() already keeps buds out of face culling.
+  @Override
+  protected @NotNull VoxelShape getInteractionShape(
+      BlockState state, @NotNull BlockGetter level, @NotNull BlockPos pos) {
+    return shape(state);
   }
 
   @Nullable
@@ -153,7 +224,7 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
     return state;
   }
 
-  private boolean canSupportAt(LevelReader level, BlockPos pos, Direction direction) {
+  boolean canSupportAt(BlockGetter level, BlockPos pos, Direction direction) {
     BlockPos supportPos = pos.relative(direction.getOpposite());
     return level.getBlockState(supportPos).isFaceSturdy(level, supportPos, direction);
   }
@@ -163,6 +234,14 @@ public class CrystalBudBlock extends Block implements SimpleWaterloggedBlock {
     return state.getValue(WATERLOGGED) ? Fluids.WATER.getSource(false) : super.getFluidState(state);
   }
 
+  // Buds with an unchanged loot table skip loot table evaluation
+  @Override
+  protected @NotNull List<ItemStack> getDrops(
+      @NotNull BlockState state, @NotNull LootParams.Builder params) {
+    List<ItemStack> drops = CrystalDrops.drops(state, params);
+    return drops != null ? drops : super.getDrops(state, params);
+  }
+
   @Override
   public @NotNull PushReaction getPistonPushReaction(@NotNull BlockState state) {
     return PushReaction.DESTROY;
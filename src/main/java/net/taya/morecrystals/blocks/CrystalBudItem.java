@@ -0,0 +1,41 @@
+package net.taya.morecrystals.blocks;
+
+import net.minecraft.core.component.DataComponents;
+import net.minecraft.world.item.BlockItem;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.component.BlockItemStateProperties;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The item of one growth stage of a {@link StagedCrystalBudBlock}. It places the block at its
+ * stage and keeps the name of the separate bud block the stage used to be.
+ */
+public class CrystalBudItem extends BlockItem {
+  private final String descriptionId;
+
+  /**
+   * Constructor for CrystalBudItem
+   *
+   * @param block The staged bud block
+   * @param properties The item properties
+   * @param stage The growth stage this item places
+   * @param descriptionId The translation key of the stage
+   */
+  public CrystalBudItem(
+      StagedCrystalBudBlock block,
+      Item.Properties properties,
+      CrystalBudBlock.GrowthStage stage,
+      String descriptionId) {
+    super(
+        block,
+        properties.component(
+            DataComponents.BLOCK_STATE,
+            BlockItemStateProperties.EMPTY.with(StagedCrystalBudBlock.STAGE, stage.getLevel())));
+    this.descriptionId = descriptionId;
+  }
+
+  @Override
+  public @NotNull String getDescriptionId() {
+    return descriptionId;
+  }
+}
@@ -0,0 +1,338 @@
+package net.taya.morecrystals.blocks;
+
+import com.google.gson.JsonElement;
+import com.mojang.serialization.JsonOps;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import net.minecraft.core.Holder;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.RegistryOps;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.resources.Resource;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.enchantment.EnchantmentHelper;
+import net.minecraft.world.item.enchantment.Enchantments;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.storage.loot.LootParams;
+import net.minecraft.world.level.storage.loot.LootTable;
+import net.minecraft.world.level.storage.loot.parameters.LootContextParams;
+import net.neoforged.bus.api.EventPriority;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.common.CommonHooks;
+import net.neoforged.neoforge.event.LootTableLoadEvent;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.neoforged.neoforge.server.ServerLifecycleHooks;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.pack.CrystalTypeResources;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Precomputed drops of crystal buds and budding blocks, so mining a large geode doesn't evaluate a
+ * loot table for every block.
+ *
+ * <p>Whenever server data loads, every crystal block whose loot table is still the one bundled
+ * with the mod gets a drop profile per block state. Breaking such a block computes its drops
+ * straight from the profile, with the same silk touch, fortune, tool and explosion rules as the
+ * generated loot table. Blocks whose loot table a datapack replaced or a {@link
+ * LootTableLoadEvent} listener changed, and all blocks while any global loot modifier is loaded,
+ * keep going through the regular loot table.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class CrystalDrops {
+  // Shards dropped by a cluster mined with a pickaxe, before fortune
+  public static final int CLUSTER_SHARDS = 4;
+  // Shards dropped by a cluster broken any other way
+  public static final int REDUCED_CLUSTER_SHARDS = 2;
+
+  // Replaced as a whole on every data load; null while no server data is loaded
+  @Nullable private static volatile Profiles profiles;
+
+  // Crystal loot tables as they were before LootTableLoadEvent listeners ran, and the ones those
+  // listeners changed. Loot tables load on a worker thread.
+  private static final Map<ResourceLocation, JsonElement> LOADING_TABLES =
+      new ConcurrentHashMap<>();
+  private static final Set<ResourceLocation> CHANGED_ON_LOAD = ConcurrentHashMap.newKeySet();
+
+  private CrystalDrops() {}
+
+  /**
+   * Computes the drops of a crystal block from its precomputed profile
+   *
+   * @param state The state of the broken block
+   * @param params The loot parameters of the break
+   * @return The drops, or null if the block has to use its loot table
+   */
+  @Nullable
+  public static List<ItemStack> drops(BlockState state, LootParams.Builder params) {
+    Profiles current = profiles;
+    DropProfile profile = current == null ? null : current.byState.get(state);
+    if (profile == null) {
+      return null;
+    }
+
+    ItemStack tool = params.getOptionalParameter(LootContextParams.TOOL);
+    if (tool != null && EnchantmentHelper.getItemEnchantmentLevel(current.silkTouch, tool) > 0) {
+      return List.of(profile.silkTouchDrop.copy());
+    }
+
+    RandomSource random = params.getLevel().getRandom();
+    Float explosionRadius = params.getOptionalParameter(LootContextParams.EXPLOSION_RADIUS);
+    if (profile.needsClusterTool && (tool == null || !tool.is(ItemTags.CLUSTER_MAX_HARVESTABLES))) {
+      return decayed(profile.reducedDrop, profile.reducedDrop.getCount(), explosionRadius, random);
+    }
+    if (profile.drop.isEmpty()) {
+      return List.of();
+    }
+
+    int count = profile.drop.getCount();
+    if (profile.fortune && tool != null) {
+      int fortune = EnchantmentHelper.getItemEnchantmentLevel(current.fortune, tool);
+      count = oreBonusCount(count, fortune, random);
+    }
+    // Mining with the right tool never decays, just like in the loot table
+    return profile.needsClusterTool
+        ? List.of(profile.drop.copyWithCount(count))
+        : decayed(profile.drop, count, explosionRadius, random);
+  }
+
+  @SubscribeEvent(priority = EventPriority.HIGHEST)
+  public static void onLootTableLoadFirst(LootTableLoadEvent event) {
+    ResourceLocation id = event.getName();
+    if (!id.getNamespace().equals(MoreCrystals.MODID)) {
+      return;
+    }
+
+    CHANGED_ON_LOAD.remove(id);
+    JsonElement json = encode(event);
+    if (json != null) {
+      LOADING_TABLES.put(id, json);
+    }
+  }
+
+  @SubscribeEvent(priority = EventPriority.LOWEST, receiveCanceled = true)
+  public static void onLootTableLoadLast(LootTableLoadEvent event) {
+    ResourceLocation id = event.getName();
+    if (!id.getNamespace().equals(MoreCrystals.MODID)) {
+      return;
+    }
+
+    JsonElement before = LOADING_TABLES.remove(id);
+    if (event.isCanceled() || before == null || !before.equals(encode(event))) {
+      CHANGED_ON_LOAD.add(id);
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStarted(ServerStartedEvent event) {
+    rebuild(event.getServer());
+  }
+
+  @SubscribeEvent
+  public static void onTagsUpdated(TagsUpdatedEvent event) {
+    // The initial load happens before the server exists, which ServerStartedEvent covers
+    MinecraftServer server = ServerLifecycleHooks.getCurrentServer();
+    if (event.getUpdateCause() == TagsUpdatedEvent.UpdateCause.SERVER_DATA_LOAD && server != null) {
+      rebuild(server);
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopped(ServerStoppedEvent event) {
+    profiles = null;
+  }
+
+  private static void rebuild(MinecraftServer server) {
+    if (!CommonHooks.getLootModifierManager().getAllLootMods().isEmpty()) {
+      // Modifiers can change any drop, so only the full loot table evaluation sees them
+      profiles = null;
+      MoreCrystals.LOGGER.info("Global loot modifiers are loaded, crystal drops use loot tables");
+      return;
+    }
+
+    Registry<Enchantment> enchantments =
+        server.registryAccess().registryOrThrow(Registries.ENCHANTMENT);
+    Holder<Enchantment> silkTouch = enchantments.getHolderOrThrow(Enchantments.SILK_TOUCH);
+    Holder<Enchantment> fortune = enchantments.getHolderOrThrow(Enchantments.FORTUNE);
+
+    Reference2ObjectOpenHashMap<BlockState, DropProfile> byState =
+        new Reference2ObjectOpenHashMap<>();
+    int overridden = 0;
+    for (CrystalType type : CrystalType.REGISTRY) {
+      // With single block buds every stage is the same block, so collect each block once
+      Set<DeferredBlock<Block>> blocks = new LinkedHashSet<>();
+      for (BuddingCrystalBlock.BuddingQuality quality :
+          BuddingCrystalBlock.BuddingQuality.values()) {
+        blocks.add(type.getBuddingBlock(quality));
+      }
+      for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+        blocks.add(type.getBudBlock(stage));
+      }
+      blocks.addAll(type.legacyBudBlocks);
+
+      for (DeferredBlock<Block> block : blocks) {
+        if (!addProfiles(server, byState, type, block.get())) {
+          overridden++;
+        }
+      }
+    }
+
+    byState.trim();
+    profiles = new Profiles(byState, silkTouch, fortune);
+    MoreCrystals.LOGGER.info(
+        "Precomputed {} crystal drop profiles, {} blocks use replaced or changed loot tables",
+        byState.size(),
+        overridden);
+  }
+
+  /**
+   * Adds the drop profiles of every state of a block, if its loot table is the bundled one and no
+   * {@link LootTableLoadEvent} listener changed it
+   *
+   * @return false if the block's loot table was replaced or changed and it got no profiles
+   */
+  private static boolean addProfiles(
+      MinecraftServer server,
+      Reference2ObjectOpenHashMap<BlockState, DropProfile> byState,
+      CrystalType type,
+      Block block) {
+    ResourceKey<LootTable> lootTable = block.getLootTable();
+    if (CHANGED_ON_LOAD.contains(lootTable.location())
+        || !hasBundledLootTable(server, lootTable)) {
+      return false;
+    }
+
+    for (BlockState state : block.getStateDefinition().getPossibleStates()) {
+      byState.put(state, profile(type, block, state));
+    }
+    return true;
+  }
+
+  private static DropProfile profile(CrystalType type, Block block, BlockState state) {
+    if (block instanceof CrystalBudBlock budBlock) {
+      CrystalBudBlock.GrowthStage stage = budBlock.getGrowthStage(state);
+      ItemStack stageItem = new ItemStack(type.getBudItem(stage).get());
+      if (stage == CrystalBudBlock.GrowthStage.CLUSTER) {
+        return new DropProfile(
+            stageItem,
+            new ItemStack(type.shardItem.get(), CLUSTER_SHARDS),
+            true,
+            new ItemStack(type.shardItem.get(), REDUCED_CLUSTER_SHARDS),
+            true);
+      }
+      return new DropProfile(stageItem, ItemStack.EMPTY, false, ItemStack.EMPTY, false);
+    }
+
+    // Budding blocks; their single crystal block surviving an explosion is the same as decaying
+    ItemStack crystalBlock = new ItemStack(type.crystalBlock.get());
+    return new DropProfile(new ItemStack(block), crystalBlock, false, ItemStack.EMPTY, false);
+  }
+
+  /**
+   * Checks whether the loot table the server loaded is byte for byte the one bundled with the mod,
+   * or the one generated for a crystal type the mod doesn't bundle
+   *
+   * @param server The server
+   * @param key The loot table
+   * @return false if a datapack replaced the loot table
+   */
+  private static boolean hasBundledLootTable(MinecraftServer server, ResourceKey<LootTable> key) {
+    ResourceLocation id = key.location();
+    ResourceLocation file = id.withPath(path -> "loot_table/" + path + ".json");
+    Optional<Resource> loaded = server.getResourceManager().getResource(file);
+    if (loaded.isEmpty()) {
+      return false;
+    }
+
+    String bundledPath = "/data/" + file.getNamespace() + "/" + file.getPath();
+    try (InputStream loadedStream = loaded.get().open();
+        InputStream bundledStream = CrystalDrops.class.getResourceAsStream(bundledPath)) {
+      byte[] bundled =
+          bundledStream != null
+              ? bundledStream.readAllBytes()
+              : CrystalTypeResources.get(PackType.SERVER_DATA).get(file);
+      return bundled != null && Arrays.equals(loadedStream.readAllBytes(), bundled);
+    } catch (IOException e) {
+      MoreCrystals.LOGGER.warn("Failed to compare loot table {}", id, e);
+      return false;
+    }
+  }
+
+  @Nullable
+  private static JsonElement encode(LootTableLoadEvent event) {
+    RegistryOps<JsonElement> ops = RegistryOps.create(JsonOps.INSTANCE, event.getRegistries());
+    return LootTable.DIRECT_CODEC
+        .encodeStart(ops, event.getTable())
+        .resultOrPartial(
+            error ->
+                MoreCrystals.LOGGER.warn(
+                    "Failed to encode loot table {}: {}", event.getName(), error))
+        .orElse(null);
+  }
+
+  // Same as the ore drops formula of the apply_bonus loot function
+  private static int oreBonusCount(int count, int fortune, RandomSource random) {
+    if (fortune <= 0) {
+      return count;
+    }
+    return count * (Math.max(0, random.nextInt(fortune + 2) - 1) + 1);
+  }
+
+  // Same as the explosion_decay loot function: each item survives with a chance of 1 / radius
+  private static List<ItemStack> decayed(
+      ItemStack drop, int count, @Nullable Float explosionRadius, RandomSource random) {
+    if (explosionRadius != null) {
+      float chance = 1.0F / explosionRadius;
+      int kept = 0;
+      for (int i = 0; i < count; i++) {
+        if (random.nextFloat() <= chance) {
+          kept++;
+        }
+      }
+      count = kept;
+    }
+    return count > 0 ? List.of(drop.copyWithCount(count)) : List.of();
+  }
+
+  /**
+   * The drop rules of one block state
+   *
+   * @param silkTouchDrop Dropped when mined with silk touch
+   * @param drop Dropped otherwise, may be empty
+   * @param fortune Whether fortune multiplies the count of {@code drop}
+   * @param reducedDrop Dropped instead of {@code drop} when the tool can't harvest clusters
+   * @param needsClusterTool Whether {@code drop} needs a tool from the cluster harvestables tag
+   */
+  private record DropProfile(
+      ItemStack silkTouchDrop,
+      ItemStack drop,
+      boolean fortune,
+      ItemStack reducedDrop,
+      boolean needsClusterTool) {}
+
+  /** The drop profiles and enchantments of one data load */
+  private record Profiles(
+      Reference2ObjectOpenHashMap<BlockState, DropProfile> byState,
+      Holder<Enchantment> silkTouch,
+      Holder<Enchantment> fortune) {}
+}
@@ -0,0 +1,69 @@
+package net.taya.morecrystals.blocks;
+
+import java.util.function.Function;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.level.ItemLike;
+import net.minecraft.world.level.LevelReader;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.StateDefinition;
+import net.minecraft.world.level.block.state.properties.IntegerProperty;
+import net.minecraft.world.phys.shapes.VoxelShape;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * A crystal bud that holds every growth stage in one block, selected by the {@link #STAGE}
+ * property. Growing a bud only changes its state, so the block itself never has to be swapped.
+ */
+public class StagedCrystalBudBlock extends CrystalBudBlock {
+  public static final IntegerProperty STAGE = IntegerProperty.create("stage", 1, 4);
+
+  private static final GrowthStage[] STAGES = GrowthStage.values();
+
+  // The item of each growth stage, since all of them place this block
+  private final Function<GrowthStage, ItemLike> stageItems;
+
+  /**
+   * Constructor for StagedCrystalBudBlock
+   *
+   * @param properties The block properties
+   * @param lightLevels Light emission indexed by growth stage ordinal
+   * @param stageItems The item of each growth stage, only called once items are registered
+   */
+  public StagedCrystalBudBlock(
+      BlockBehaviour.Properties properties,
+      int[] lightLevels,
+      Function<GrowthStage, ItemLike> stageItems) {
+    super(properties, GrowthStage.SMALL, state -> lightLevels[state.getValue(STAGE) - 1]);
+    this.stageItems = stageItems;
+  }
+
+  @Override
+  public GrowthStage getGrowthStage(BlockState state) {
+    return STAGES[state.getValue(STAGE) - 1];
+  }
+
+  @Override
+  public BlockState stageState(GrowthStage stage) {
+    return defaultBlockState().setValue(STAGE, stage.getLevel());
+  }
+
+  @Override
+  protected VoxelShape shape(BlockState state) {
+    return getGrowthStage(state).getShape(state.getValue(FACING));
+  }
+
+  @Override
+  protected void createBlockStateDefinition(StateDefinition.Builder<Block, BlockState> builder) {
+    super.createBlockStateDefinition(builder);
+    builder.add(STAGE);
+  }
+
+  @Override
+  public @NotNull ItemStack getCloneItemStack(
+      @NotNull LevelReader level, @NotNull BlockPos pos, @NotNull BlockState state) {
+    return new ItemStack(stageItems.apply(getGrowthStage(state)));
+  }
+}
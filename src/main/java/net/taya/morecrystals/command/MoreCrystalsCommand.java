@@ -0,0 +1,123 @@
+package net.taya.morecrystals.command;
+
+import com.mojang.brigadier.CommandDispatcher;
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.growth.GrowthMetrics;
+import net.taya.morecrystals.growth.GrowthSimulation;
+import net.taya.morecrystals.worldgen.GeodePregen;
+
+/** Registers the {@code /morecrystals} command and its subcommands. */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class MoreCrystalsCommand {
+  // Radius in chunks, about 4000 blocks in every direction
+  private static final int MAX_PREGEN_RADIUS = 250;
+  // Radius in chunks simulated when none is given, and the largest accepted one
+  private static final int DEFAULT_SIMULATE_RADIUS = 2;
+  private static final int MAX_SIMULATE_RADIUS = 32;
+
+  private MoreCrystalsCommand() {}
+
+  @SubscribeEvent
+  public static void onRegisterCommands(RegisterCommandsEvent event) {
+    register(event.getDispatcher());
+  }
+
+  private static void register(CommandDispatcher<CommandSourceStack> dispatcher) {
+    dispatcher.register(
+        Commands.literal(MoreCrystals.MODID)
+            .requires(source -> source.hasPermission(Commands.LEVEL_GAMEMASTERS))
+            .then(
+                Commands.literal("stats")
+                    .executes(context -> showStats(context.getSource()))
+                    .then(
+                        Commands.literal("reset")
+                            .executes(context -> resetStats(context.getSource()))))
+            .then(
+                Commands.literal("pregen")
+                    .then(
+                        Commands.literal("stop")
+                            .executes(context -> GeodePregen.stop(context.getSource()) ? 1 : 0))
+                    .then(
+                        Commands.argument(
+                                "radius", IntegerArgumentType.integer(0, MAX_PREGEN_RADIUS))
+                            .executes(
+                                context ->
+                                    startPregen(
+                                        context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "radius"))))))
+            .then(
+                Commands.literal("simulate")
+                    .then(
+                        Commands.argument("ticks", IntegerArgumentType.integer(1))
+                            .executes(
+                                context ->
+                                    simulate(
+                                        context.getSource(),
+                                        IntegerArgumentType.getInteger(context, "ticks"),
+                                        DEFAULT_SIMULATE_RADIUS))
+                            .then(
+                                Commands.argument(
+                                        "radius",
+                                        IntegerArgumentType.integer(0, MAX_SIMULATE_RADIUS))
+                                    .executes(
+                                        context ->
+                                            simulate(
+                                                context.getSource(),
+                                                IntegerArgumentType.getInteger(context, "ticks"),
+                                                IntegerArgumentType.getInteger(
+                                                    context, "radius"))))));
+  }
+
+  private static int startPregen(CommandSourceStack source, int radius) {
+    BlockPos center = BlockPos.containing(source.getPosition());
+    return GeodePregen.start(source, source.getLevel(), center, radius) ? 1 : 0;
+  }
+
+  private static int simulate(CommandSourceStack source, int ticks, int radius) {
+    BlockPos center = BlockPos.containing(source.getPosition());
+    GrowthSimulation.Result result =
+        GrowthSimulation.simulate(source.getLevel(), center, radius, ticks);
+    source.sendSuccess(
+        () ->
+            Component.literal(
+                "Simulated "
+                    + ticks
+                    + " ticks of "
+                    + result.buddingBlocks()
+                    + " budding crystals, "
+                    + result.changedBlocks()
+                    + " blocks changed"),
+        true);
+    return result.changedBlocks();
+  }
+
+  private static int showStats(CommandSourceStack source) {
+    if (!Config.growthMetrics) {
+      source.sendFailure(
+          Component.literal("Growth metrics are disabled, enable growthMetrics in the config"));
+      return 0;
+    }
+
+    int ticks = GrowthMetrics.ticksSinceReset(source.getServer());
+    source.sendSuccess(() -> Component.literal("Growth metrics over " + ticks + " ticks:"), false);
+    for (GrowthMetrics.Snapshot snapshot : GrowthMetrics.snapshot()) {
+      source.sendSuccess(() -> Component.literal(snapshot.describe(ticks)), false);
+    }
+    return ticks;
+  }
+
+  private static int resetStats(CommandSourceStack source) {
+    GrowthMetrics.reset(source.getServer());
+    source.sendSuccess(() -> Component.literal("Growth metrics reset"), true);
+    return 1;
+  }
+}
@@ -0,0 +1,168 @@
+package net.taya.morecrystals.datagen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import net.minecraft.advancements.critereon.ItemPredicate;
+import net.minecraft.advancements.critereon.StatePropertiesPredicate;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.PackOutput;
+import net.minecraft.data.loot.BlockLootSubProvider;
+import net.minecraft.data.loot.LootTableProvider;
+import net.minecraft.tags.ItemTags;
+import net.minecraft.world.flag.FeatureFlags;
+import net.minecraft.world.item.Item;
+import net.minecraft.world.item.enchantment.Enchantment;
+import net.minecraft.world.item.enchantment.Enchantments;
+import net.minecraft.world.level.ItemLike;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.storage.loot.LootPool;
+import net.minecraft.world.level.storage.loot.LootTable;
+import net.minecraft.world.level.storage.loot.entries.LootItem;
+import net.minecraft.world.level.storage.loot.entries.LootPoolEntryContainer;
+import net.minecraft.world.level.storage.loot.functions.ApplyBonusCount;
+import net.minecraft.world.level.storage.loot.functions.SetItemCountFunction;
+import net.minecraft.world.level.storage.loot.parameters.LootContextParamSets;
+import net.minecraft.world.level.storage.loot.predicates.LootItemBlockStatePropertyCondition;
+import net.minecraft.world.level.storage.loot.predicates.MatchTool;
+import net.minecraft.world.level.storage.loot.providers.number.ConstantValue;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+import net.taya.morecrystals.blocks.CrystalDrops;
+import net.taya.morecrystals.blocks.StagedCrystalBudBlock;
+import net.taya.morecrystals.pack.CrystalTypeResources;
+
+/**
+ * Generates the block loot tables of every crystal type and the crystal accelerator. Crystal
+ * blocks follow vanilla amethyst: buds only drop with silk touch, clusters drop shards that
+ * fortune multiplies, and budding blocks only keep their quality with silk touch.
+ *
+ * <p>{@link CrystalDrops} computes the same drops without evaluating the tables, and {@link
+ * CrystalTypeResources} generates the same tables for crystal types that aren't bundled, so all
+ * three have to be changed together.
+ */
+public class CrystalLootProvider extends LootTableProvider {
+  public CrystalLootProvider(
+      PackOutput output, CompletableFuture<HolderLookup.Provider> registries) {
+    super(
+        output,
+        Set.of(),
+        List.of(new SubProviderEntry(CrystalBlockLoot::new, LootContextParamSets.BLOCK)),
+        registries);
+  }
+
+  /** The block loot of all crystal types */
+  private static class CrystalBlockLoot extends BlockLootSubProvider {
+    CrystalBlockLoot(HolderLookup.Provider registries) {
+      super(Set.of(), FeatureFlags.REGISTRY.allFlags(), registries);
+    }
+
+    @Override
+    protected void generate() {
+      for (CrystalType type : CrystalType.REGISTRY) {
+        dropSelf(type.crystalBlock.get());
+
+        // Without silk touch, budding blocks break down into a plain crystal block
+        for (BuddingCrystalBlock.BuddingQuality quality :
+            BuddingCrystalBlock.BuddingQuality.values()) {
+          Block budding = type.getBuddingBlock(quality).get();
+          add(
+              budding,
+              createSilkTouchDispatchTable(
+                  budding,
+                  applyExplosionCondition(budding, LootItem.lootTableItem(type.crystalBlock))));
+        }
+
+        if (type.definition.singleBlockBuds()) {
+          add(type.clusterBlock.get(), stagedBudTable(type));
+        } else {
+          for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+            add(type.getBudBlock(stage).get(), budTable(type, type.getBudBlock(stage), stage));
+          }
+        }
+        for (DeferredBlock<Block> legacyBudBlock : type.legacyBudBlocks) {
+          CrystalBudBlock budBlock = (CrystalBudBlock) legacyBudBlock.get();
+          CrystalBudBlock.GrowthStage stage =
+              budBlock.getGrowthStage(budBlock.defaultBlockState());
+          add(budBlock, budTable(type, legacyBudBlock, stage));
+        }
+      }
+
+      dropSelf(MoreCrystals.CRYSTAL_ACCELERATOR.get());
+    }
+
+    @Override
+    protected Iterable<Block> getKnownBlocks() {
+      List<Block> blocks = new ArrayList<>();
+      for (Holder<Block> block : MoreCrystals.BLOCKS.getEntries()) {
+        blocks.add(block.value());
+      }
+      return blocks;
+    }
+
+    private LootTable.Builder budTable(
+        CrystalType type, ItemLike block, CrystalBudBlock.GrowthStage stage) {
+      return LootTable.lootTable()
+          .withPool(
+              LootPool.lootPool()
+                  .setRolls(ConstantValue.exactly(1.0F))
+                  .add(budEntry(type, block, stage)));
+    }
+
+    // One pool per stage, each only rolled while the block is at that stage
+    private LootTable.Builder stagedBudTable(CrystalType type) {
+      Block block = type.clusterBlock.get();
+      LootTable.Builder table = LootTable.lootTable();
+      for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+        table.withPool(
+            LootPool.lootPool()
+                .setRolls(ConstantValue.exactly(1.0F))
+                .add(budEntry(type, block, stage))
+                .when(
+                    LootItemBlockStatePropertyCondition.hasBlockStateProperties(block)
+                        .setProperties(
+                            StatePropertiesPredicate.Builder.properties()
+                                .hasProperty(StagedCrystalBudBlock.STAGE, stage.getLevel()))));
+      }
+      return table;
+    }
+
+    private LootPoolEntryContainer.Builder<?> budEntry(
+        CrystalType type, ItemLike block, CrystalBudBlock.GrowthStage stage) {
+      Item stageItem = type.getBudItem(stage).get();
+      if (stage != CrystalBudBlock.GrowthStage.CLUSTER) {
+        return LootItem.lootTableItem(stageItem).when(hasSilkTouch());
+      }
+
+      HolderLookup.RegistryLookup<Enchantment> enchantments =
+          registries.lookupOrThrow(Registries.ENCHANTMENT);
+      return LootItem.lootTableItem(stageItem)
+          .when(hasSilkTouch())
+          .otherwise(
+              LootItem.lootTableItem(type.shardItem)
+                  .apply(
+                      SetItemCountFunction.setCount(
+                          ConstantValue.exactly(CrystalDrops.CLUSTER_SHARDS)))
+                  .apply(
+                      ApplyBonusCount.addOreBonusCount(
+                          enchantments.getOrThrow(Enchantments.FORTUNE)))
+                  .when(
+                      MatchTool.toolMatches(
+                          ItemPredicate.Builder.item().of(ItemTags.CLUSTER_MAX_HARVESTABLES)))
+                  .otherwise(
+                      applyExplosionDecay(
+                          block,
+                          LootItem.lootTableItem(type.shardItem)
+                              .apply(
+                                  SetItemCountFunction.setCount(
+                                      ConstantValue.exactly(
+                                          CrystalDrops.REDUCED_CLUSTER_SHARDS))))));
+    }
+  }
+}
@@ -20,5 +20,9 @@ public class DataGenerators {
     generator.addProvider(
         event.includeClient(), new ModelsProvider(packOutput, existingFileHelper));
     generator.addProvider(event.includeClient(), new LangProvider(packOutput));
+    generator.addProvider(
+        event.includeServer(), new WorldgenProvider(packOutput, event.getLookupProvider()));
+    generator.addProvider(
+        event.includeServer(), new CrystalLootProvider(packOutput, event.getLookupProvider()));
   }
 }
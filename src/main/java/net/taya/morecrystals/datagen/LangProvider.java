@@ -19,6 +19,8 @@ public class LangProvider extends LanguageProvider {
     for (CrystalType type : CrystalType.REGISTRY) {
       addCrystalTranslations(type);
     }
+
+    add(MoreCrystals.CRYSTAL_ACCELERATOR.get(), "Crystal Accelerator");
   }
 
   /** Add translations for all blocks related to a crystal type */
@@ -40,6 +42,13 @@ public class LangProvider extends LanguageProvider {
     add("block.morecrystals.medium_" + crystalType + "_bud", "Medium " + formattedName + " Bud");
     add("block.morecrystals.large_" + crystalType + "_bud", "Large " + formattedName + " Bud");
     add("block.morecrystals." + crystalType + "_cluster", formattedName + " Cluster");
+
+    // The single block that holds every stage, named after it in the few places it shows up
+    if (type.definition.singleBlockBuds()) {
+      add("block.morecrystals." + crystalType + "_bud", formattedName + " Bud");
+    }
+
+    add(type.shardItem.get(), formattedName + " Shard");
   }
 
   /** Format a name to be capitalized nicely */
@@ -1,8 +1,12 @@
 package net.taya.morecrystals.datagen;
 
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
 import net.minecraft.core.Direction;
 import net.minecraft.data.PackOutput;
 import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackType;
 import net.minecraft.world.level.block.Block;
 import net.neoforged.neoforge.client.model.generators.BlockModelBuilder;
 import net.neoforged.neoforge.client.model.generators.BlockStateProvider;
@@ -16,8 +20,11 @@ import net.taya.morecrystals.blocks.BuddingCrystalBlock;
 import net.taya.morecrystals.blocks.CrystalBudBlock;
 
 public class ModelsProvider extends BlockStateProvider {
+  private final ExistingFileHelper existingFileHelper;
+
   public ModelsProvider(PackOutput output, ExistingFileHelper existingFileHelper) {
     super(output, MoreCrystals.MODID, existingFileHelper);
+    this.existingFileHelper = existingFileHelper;
   }
 
   @Override
@@ -26,6 +33,14 @@ public class ModelsProvider extends BlockStateProvider {
     for (CrystalType type : CrystalType.REGISTRY) {
       registerCrystalVariant(type);
     }
+
+    // The accelerator looks like an amethyst block until the mod ships its own texture
+    ResourceLocation acceleratorTexture = modLoc("block/crystal_accelerator");
+    if (!textureExists(acceleratorTexture)) {
+      acceleratorTexture = mcLoc("block/amethyst_block");
+    }
+    Block accelerator = MoreCrystals.CRYSTAL_ACCELERATOR.get();
+    simpleBlockWithItem(accelerator, models().cubeAll("crystal_accelerator", acceleratorTexture));
   }
 
   /**
@@ -44,10 +59,9 @@ public class ModelsProvider extends BlockStateProvider {
     createCrystalBlockModel(type);
 
     // Create bud models
-    createCrystalBudModels(type, "small", CrystalBudBlock.GrowthStage.SMALL);
-    createCrystalBudModels(type, "medium", CrystalBudBlock.GrowthStage.MEDIUM);
-    createCrystalBudModels(type, "large", CrystalBudBlock.GrowthStage.LARGE);
-    createCrystalBudModels(type, "", CrystalBudBlock.GrowthStage.CLUSTER);
+    createCrystalBudModels(type);
+
+    createShardModel(type);
   }
 
   /** Creates model for the crystal block (non-budding) */
@@ -110,61 +124,43 @@ public class ModelsProvider extends BlockStateProvider {
     };
   }
 
-  /** Creates models for crystal bud blocks at a specific growth stage */
-  private void createCrystalBudModels(
-      CrystalType type, String sizePrefix, CrystalBudBlock.GrowthStage stage) {
-    String crystalType = type.name;
-    String blockId =
-        sizePrefix.isEmpty() ? crystalType + "_cluster" : sizePrefix + "_" + crystalType + "_bud";
-
-    // Get the bud block based on growth stage
-    DeferredBlock<Block> deferredBlock = getBudBlockForStage(type, stage);
-    if (deferredBlock == null) {
-      MoreCrystals.LOGGER.error("Failed to get bud block for stage: {}", stage);
-      return;
+  /** Creates models for every crystal bud growth stage and blockstates for all bud blocks */
+  private void createCrystalBudModels(CrystalType type) {
+    CrystalBudBlock.GrowthStage[] stages = CrystalBudBlock.GrowthStage.values();
+    ModelFile[] stageModels = new ModelFile[stages.length];
+    Set<Block> budBlocks = new LinkedHashSet<>();
+    for (CrystalBudBlock.GrowthStage stage : stages) {
+      String budId = type.budId(stage);
+      stageModels[stage.ordinal()] = createCrossBudModel(type.name, budId, stage);
+      itemModels().getBuilder(budId).parent(stageModels[stage.ordinal()]);
+      budBlocks.add(type.getBudBlock(stage).get());
+    }
+    for (DeferredBlock<Block> legacyBudBlock : type.legacyBudBlocks) {
+      budBlocks.add(legacyBudBlock.get());
     }
 
-    Block block = deferredBlock.get();
-
-    ModelFile crossModel = createCrossBudModel(crystalType, blockId, stage, sizePrefix);
-
-    getVariantBuilder(block)
-        .forAllStates(
-            state -> {
-              Direction dir = state.getValue(CrystalBudBlock.FACING);
-
-              // For cross models, we only need rotational data for non-UP faces
-              if (dir == Direction.UP) {
-                return ConfiguredModel.builder().modelFile(crossModel).build();
-              } else {
-                // For other directions, we need to determine appropriate rotations
-                return ConfiguredModel.builder()
-                    .modelFile(crossModel)
-                    .rotationX(dir == Direction.DOWN ? 180 : 90)
-                    .rotationY(getYRotationForDirection(dir))
-                    .build();
-              }
-            });
-
-    itemModels().getBuilder(blockId).parent(crossModel);
-  }
-
-  /**
-   * Helper method to get the appropriate bud block for a growth stage
-   *
-   * @param type The crystal type
-   * @param stage The growth stage
-   * @return The deferred block for the stage, or null if unknown stage
-   */
-  private DeferredBlock<Block> getBudBlockForStage(
-      CrystalType type, CrystalBudBlock.GrowthStage stage) {
-    return switch (stage) {
-      case SMALL -> type.smallBudBlock;
-      case MEDIUM -> type.mediumBudBlock;
-      case LARGE -> type.largeBudBlock;
-      case CLUSTER -> type.clusterBlock;
-      default -> null;
-    };
+    // A single block bud picks the model of its stage, per-stage blocks always get the same one
+    for (Block block : budBlocks) {
+      CrystalBudBlock budBlock = (CrystalBudBlock) block;
+      getVariantBuilder(block)
+          .forAllStates(
+              state -> {
+                ModelFile model = stageModels[budBlock.getGrowthStage(state).ordinal()];
+                Direction dir = state.getValue(CrystalBudBlock.FACING);
+
+                // For cross models, we only need rotational data for non-UP faces
+                if (dir == Direction.UP) {
+                  return ConfiguredModel.builder().modelFile(model).build();
+                } else {
+                  // For other directions, we need to determine appropriate rotations
+                  return ConfiguredModel.builder()
+                      .modelFile(model)
+                      .rotationX(dir == Direction.DOWN ? 180 : 90)
+                      .rotationY(getYRotationForDirection(dir))
+                      .build();
+                }
+              });
+    }
   }
 
   /**
@@ -173,14 +169,32 @@ public class ModelsProvider extends BlockStateProvider {
    * @return The model file for the cross type bud
    */
   private ModelFile createCrossBudModel(
-      String crystalType, String blockId, CrystalBudBlock.GrowthStage stage, String sizePrefix) {
+      String crystalType, String blockId, CrystalBudBlock.GrowthStage stage) {
     // Use crystal type subfolder and simplified names for textures
-    String budType = sizePrefix.isEmpty() ? "cluster" : sizePrefix + "_bud";
+    String budType =
+        stage == CrystalBudBlock.GrowthStage.CLUSTER
+            ? "cluster"
+            : stage.name().toLowerCase(Locale.ROOT) + "_bud";
     ResourceLocation texture = modLoc("block/" + crystalType + "/" + budType);
 
     return models().cross(blockId, texture).renderType("cutout");
   }
 
+  /** Creates the shard item model, using the cluster texture unless the type has a shard texture */
+  private void createShardModel(CrystalType type) {
+    ResourceLocation texture = modLoc("item/" + type.name + "/shard");
+    if (!textureExists(texture)) {
+      texture = modLoc("block/" + type.name + "/cluster");
+    }
+    itemModels()
+        .withExistingParent(type.shardItem.getId().getPath(), mcLoc("item/generated"))
+        .texture("layer0", texture);
+  }
+
+  private boolean textureExists(ResourceLocation texture) {
+    return existingFileHelper.exists(texture, PackType.CLIENT_RESOURCES, ".png", "textures");
+  }
+
   /** Returns the Y rotation angle for a horizontal direction */
   private int getYRotationForDirection(Direction dir) {
     return switch (dir) {
@@ -0,0 +1,128 @@
+package net.taya.morecrystals.datagen;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import net.minecraft.core.Holder;
+import net.minecraft.core.HolderGetter;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.HolderSet;
+import net.minecraft.core.RegistrySetBuilder;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.data.PackOutput;
+import net.minecraft.data.worldgen.BootstrapContext;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.tags.BiomeTags;
+import net.minecraft.world.level.levelgen.GenerationStep;
+import net.minecraft.world.level.levelgen.VerticalAnchor;
+import net.minecraft.world.level.levelgen.feature.ConfiguredFeature;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.configurations.SimpleRandomFeatureConfiguration;
+import net.minecraft.world.level.levelgen.placement.BiomeFilter;
+import net.minecraft.world.level.levelgen.placement.HeightRangePlacement;
+import net.minecraft.world.level.levelgen.placement.InSquarePlacement;
+import net.minecraft.world.level.levelgen.placement.PlacedFeature;
+import net.minecraft.world.level.levelgen.placement.RarityFilter;
+import net.neoforged.neoforge.common.data.DatapackBuiltinEntriesProvider;
+import net.neoforged.neoforge.common.world.BiomeModifier;
+import net.neoforged.neoforge.common.world.BiomeModifiers;
+import net.neoforged.neoforge.registries.NeoForgeRegistries;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.worldgen.CrystalGeodeConfiguration;
+
+/**
+ * Generates the crystal geode world generation data.
+ *
+ * <p>Every crystal type gets its own configured and placed {@code crystal_geode_<name>} feature.
+ * Those are not added to biomes directly; instead a single {@code crystal_geodes} placed feature
+ * does the rarity and height checks and then picks one crystal type's geode at random, so the
+ * work per chunk stays the same no matter how many crystal types there are.
+ */
+public class WorldgenProvider extends DatapackBuiltinEntriesProvider {
+  // On average one geode every this many chunks, for all crystal types together
+  private static final int GEODE_RARITY = 48;
+
+  private static final ResourceKey<ConfiguredFeature<?, ?>> CRYSTAL_GEODES_CONFIGURED =
+      ResourceKey.create(Registries.CONFIGURED_FEATURE, id("crystal_geodes"));
+  private static final ResourceKey<PlacedFeature> CRYSTAL_GEODES_PLACED =
+      ResourceKey.create(Registries.PLACED_FEATURE, id("crystal_geodes"));
+  private static final ResourceKey<BiomeModifier> ADD_CRYSTAL_GEODES =
+      ResourceKey.create(NeoForgeRegistries.Keys.BIOME_MODIFIERS, id("add_crystal_geodes"));
+
+  private static final RegistrySetBuilder BUILDER =
+      new RegistrySetBuilder()
+          .add(Registries.CONFIGURED_FEATURE, WorldgenProvider::configuredFeatures)
+          .add(Registries.PLACED_FEATURE, WorldgenProvider::placedFeatures)
+          .add(NeoForgeRegistries.Keys.BIOME_MODIFIERS, WorldgenProvider::biomeModifiers);
+
+  public WorldgenProvider(PackOutput output, CompletableFuture<HolderLookup.Provider> registries) {
+    super(output, registries, BUILDER, Set.of(MoreCrystals.MODID));
+  }
+
+  private static void configuredFeatures(BootstrapContext<ConfiguredFeature<?, ?>> context) {
+    HolderGetter<PlacedFeature> placedFeatures = context.lookup(Registries.PLACED_FEATURE);
+
+    List<Holder<PlacedFeature>> geodes = new ArrayList<>();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      context.register(
+          configuredGeode(type),
+          new ConfiguredFeature<>(
+              MoreCrystals.CRYSTAL_GEODE.get(), CrystalGeodeConfiguration.standard(type)));
+      geodes.add(placedFeatures.getOrThrow(placedGeode(type)));
+    }
+
+    context.register(
+        CRYSTAL_GEODES_CONFIGURED,
+        new ConfiguredFeature<>(
+            Feature.SIMPLE_RANDOM_SELECTOR,
+            new SimpleRandomFeatureConfiguration(HolderSet.direct(geodes))));
+  }
+
+  private static void placedFeatures(BootstrapContext<PlacedFeature> context) {
+    HolderGetter<ConfiguredFeature<?, ?>> configuredFeatures =
+        context.lookup(Registries.CONFIGURED_FEATURE);
+
+    // The per type geodes are only placed through the selector, which already did the placement
+    for (CrystalType type : CrystalType.REGISTRY) {
+      context.register(
+          placedGeode(type),
+          new PlacedFeature(configuredFeatures.getOrThrow(configuredGeode(type)), List.of()));
+    }
+
+    context.register(
+        CRYSTAL_GEODES_PLACED,
+        new PlacedFeature(
+            configuredFeatures.getOrThrow(CRYSTAL_GEODES_CONFIGURED),
+            List.of(
+                RarityFilter.onAverageOnceEvery(GEODE_RARITY),
+                InSquarePlacement.spread(),
+                HeightRangePlacement.uniform(
+                    VerticalAnchor.aboveBottom(6), VerticalAnchor.absolute(30)),
+                BiomeFilter.biome())));
+  }
+
+  private static void biomeModifiers(BootstrapContext<BiomeModifier> context) {
+    HolderGetter<PlacedFeature> placedFeatures = context.lookup(Registries.PLACED_FEATURE);
+    context.register(
+        ADD_CRYSTAL_GEODES,
+        new BiomeModifiers.AddFeaturesBiomeModifier(
+            context.lookup(Registries.BIOME).getOrThrow(BiomeTags.IS_OVERWORLD),
+            HolderSet.direct(placedFeatures.getOrThrow(CRYSTAL_GEODES_PLACED)),
+            GenerationStep.Decoration.UNDERGROUND_STRUCTURES));
+  }
+
+  private static ResourceKey<ConfiguredFeature<?, ?>> configuredGeode(CrystalType type) {
+    return ResourceKey.create(Registries.CONFIGURED_FEATURE, id("crystal_geode_" + type.name));
+  }
+
+  private static ResourceKey<PlacedFeature> placedGeode(CrystalType type) {
+    return ResourceKey.create(Registries.PLACED_FEATURE, id("crystal_geode_" + type.name));
+  }
+
+  private static ResourceLocation id(String path) {
+    return ResourceLocation.fromNamespaceAndPath(MoreCrystals.MODID, path);
+  }
+}
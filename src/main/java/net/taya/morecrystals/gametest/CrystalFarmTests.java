@@ -0,0 +1,282 @@
+package net.taya.morecrystals.gametest;
+
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTestGenerator;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.gametest.framework.TestFunction;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.util.valueproviders.ConstantInt;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+import net.taya.morecrystals.growth.GrowthRates;
+import net.taya.morecrystals.worldgen.CrystalGeodeConfiguration;
+
+/**
+ * Growth correctness and performance tests for standard crystal farm layouts.
+ *
+ * <p>Every layout is built with every quality mix, then grown for a fixed number of simulated game
+ * ticks with a seeded random source. Each simulated tick hands out random ticks the way a level
+ * does on average and runs the regular growth roll for each of them. A test checks that:
+ *
+ * <ul>
+ *   <li>the number of passed growth rolls is within {@link #MAX_DEVIATION} standard deviations of
+ *       the rate derived from {@link Config}
+ *   <li>every successful growth shows up as exactly one bud stage in the world
+ *   <li>in open layouts, almost every passed roll grows a bud
+ *   <li>the mean time spent on growth per simulated tick stays under the layout's limit
+ * </ul>
+ *
+ * <p>Results of every run are written to a JSON report by {@link FarmTestReport}.
+ */
+@GameTestHolder(MoreCrystals.MODID)
+public class CrystalFarmTests {
+  private static final String BATCH = "crystal_farms";
+  private static final String TEMPLATE = MoreCrystals.MODID + ":crystal_farm";
+
+  // Side length of the empty crystal_farm template
+  private static final int FARM_SIZE = 48;
+
+  // Farms are grown synchronously, so a test never needs more than a few real ticks
+  private static final int MAX_TICKS = 100;
+
+  // One in-game day
+  private static final int SIMULATED_TICKS = 24000;
+
+  private static final double MAX_DEVIATION = 5.0D;
+
+  // Passed rolls in open layouts only fail when they hit a cluster, which is rare at these rates
+  private static final double MIN_OPEN_SUCCESS_RATIO = 0.95D;
+
+  /** The farm layouts under test */
+  enum Layout {
+    GEODE(0, false, 1.0D), // A single generated geode
+    LATTICE_1K(1000, true, 1.0D), // 1000 budding blocks, each with six free faces
+    LATTICE_10K(10000, true, 5.0D); // 10000 budding blocks, each with six free faces
+
+    private final int buddingBlocks;
+    private final boolean open;
+    private final double maxMeanMillisPerTick;
+
+    Layout(int buddingBlocks, boolean open, double maxMeanMillisPerTick) {
+      this.buddingBlocks = buddingBlocks;
+      this.open = open;
+      this.maxMeanMillisPerTick = maxMeanMillisPerTick;
+    }
+  }
+
+  /** Which qualities the budding blocks of a farm have */
+  enum QualityMix {
+    FLAWLESS,
+    FLAWED,
+    CHIPPED,
+    DAMAGED,
+    MIXED; // Every block gets a random quality
+
+    private static final BuddingCrystalBlock.BuddingQuality[] QUALITIES =
+        BuddingCrystalBlock.BuddingQuality.values();
+
+    BuddingCrystalBlock.BuddingQuality pick(RandomSource random) {
+      return this == MIXED ? QUALITIES[random.nextInt(QUALITIES.length)] : QUALITIES[ordinal()];
+    }
+  }
+
+  @GameTestGenerator
+  public static List<TestFunction> farmTests() {
+    List<TestFunction> tests = new ArrayList<>();
+    for (Layout layout : Layout.values()) {
+      for (QualityMix mix : QualityMix.values()) {
+        String name =
+            "crystalfarmtests." + layout.name().toLowerCase() + "_" + mix.name().toLowerCase();
+        tests.add(
+            new TestFunction(
+                BATCH,
+                name,
+                TEMPLATE,
+                MAX_TICKS,
+                0L,
+                true,
+                helper -> runFarm(helper, name, layout, mix)));
+      }
+    }
+    return tests;
+  }
+
+  private static void runFarm(GameTestHelper helper, String name, Layout layout, QualityMix mix) {
+    ServerLevel level = helper.getLevel();
+    CrystalType type = CrystalType.REGISTRY.get(0);
+    long seed = name.hashCode();
+    RandomSource random = RandomSource.create(seed);
+
+    List<BlockPos> budding =
+        layout == Layout.GEODE
+            ? buildGeode(helper, type, mix, random)
+            : buildLattice(helper, type, mix, layout.buddingBlocks);
+    int initialStages = countBudStages(helper);
+
+    FarmRun run = simulate(level, budding, random);
+    int grownStages = countBudStages(helper) - initialStages;
+
+    double deviation = Math.sqrt(run.variance);
+    double meanMillisPerTick = run.nanos / 1.0E6D / SIMULATED_TICKS;
+    FarmTestReport.record(
+        name,
+        layout.name(),
+        mix.name(),
+        seed,
+        budding.size(),
+        SIMULATED_TICKS,
+        run.expectedRolls,
+        deviation,
+        run.passedRolls,
+        run.growths,
+        grownStages,
+        meanMillisPerTick,
+        layout.maxMeanMillisPerTick);
+
+    if (run.expectedRolls <= 0.0D) {
+      helper.fail("No growth rolls were expected, the farm is empty");
+    }
+    if (Math.abs(run.passedRolls - run.expectedRolls) > MAX_DEVIATION * deviation) {
+      helper.fail(
+          String.format(
+              "%d growth rolls passed, expected %.1f +- %.1f",
+              run.passedRolls, run.expectedRolls, MAX_DEVIATION * deviation));
+    }
+    if (grownStages != run.growths) {
+      helper.fail(grownStages + " bud stages grew, but " + run.growths + " growths were reported");
+    }
+    if (layout.open && run.growths < MIN_OPEN_SUCCESS_RATIO * run.passedRolls) {
+      helper.fail(run.growths + " of " + run.passedRolls + " passed rolls grew a bud");
+    }
+    if (meanMillisPerTick > layout.maxMeanMillisPerTick) {
+      helper.fail(
+          String.format(
+              "Growth took %.3f ms per tick, the limit is %.3f ms",
+              meanMillisPerTick, layout.maxMeanMillisPerTick));
+    }
+    helper.succeed();
+  }
+
+  private static FarmRun simulate(ServerLevel level, List<BlockPos> budding, RandomSource random) {
+    FarmRun run = new FarmRun();
+    double randomTicksPerBlock = GrowthRates.randomTicksPerTick(level);
+
+    for (int tick = 0; tick < SIMULATED_TICKS; tick++) {
+      long randomTicks = GrowthRates.samplePoisson(random, randomTicksPerBlock * budding.size());
+      for (long i = 0; i < randomTicks; i++) {
+        BlockPos pos = budding.get(random.nextInt(budding.size()));
+        BlockState state = level.getBlockState(pos);
+        // Damaged blocks can deteriorate into plain crystal blocks, which no longer grow
+        if (!(state.getBlock() instanceof BuddingCrystalBlock buddingBlock)) {
+          continue;
+        }
+
+        double chance = configuredGrowthChance(buddingBlock);
+        run.expectedRolls += chance;
+        run.variance += chance * (1.0D - chance);
+
+        long start = System.nanoTime();
+        if (buddingBlock.rollGrowth(random)) {
+          run.passedRolls++;
+          if (buddingBlock.attemptGrowth(level, pos, random)) {
+            run.growths++;
+          }
+        }
+        run.nanos += System.nanoTime() - start;
+      }
+    }
+    return run;
+  }
+
+  // The growth chance straight from the config, independent of the resolved rate table
+  private static double configuredGrowthChance(BuddingCrystalBlock block) {
+    float weight = block.crystalType.definition.growthWeight();
+    return Math.min(1.0D, weight / Config.growthChance(block.crystalType, block.quality));
+  }
+
+  private static List<BlockPos> buildLattice(
+      GameTestHelper helper, CrystalType type, QualityMix mix, int count) {
+    // Budding blocks on every other block, so each face has a free block to grow into
+    int perAxis = (int) Math.ceil(Math.cbrt(count));
+    RandomSource layoutRandom = RandomSource.create(count);
+    List<BlockPos> budding = new ArrayList<>(count);
+    for (int x = 0; x < perAxis && budding.size() < count; x++) {
+      for (int y = 0; y < perAxis && budding.size() < count; y++) {
+        for (int z = 0; z < perAxis && budding.size() < count; z++) {
+          BlockPos pos = helper.absolutePos(new BlockPos(2 + x * 2, 2 + y * 2, 2 + z * 2));
+          BuddingCrystalBlock.BuddingQuality quality = mix.pick(layoutRandom);
+          BlockState state = type.getBuddingBlock(quality).get().defaultBlockState();
+          helper.getLevel().setBlock(pos, state, Block.UPDATE_CLIENTS);
+          budding.add(pos);
+        }
+      }
+    }
+    return budding;
+  }
+
+  private static List<BlockPos> buildGeode(
+      GameTestHelper helper, CrystalType type, QualityMix mix, RandomSource random) {
+    ServerLevel level = helper.getLevel();
+    CrystalGeodeConfiguration config =
+        new CrystalGeodeConfiguration(
+            type,
+            ConstantInt.of(CrystalGeodeConfiguration.MAX_RADIUS),
+            0.1F,
+            0.0F,
+            0.2F,
+            Blocks.CALCITE.defaultBlockState(),
+            Blocks.SMOOTH_BASALT.defaultBlockState());
+    int middle = FARM_SIZE / 2;
+    BlockPos center = helper.absolutePos(new BlockPos(middle, middle, middle));
+    MoreCrystals.CRYSTAL_GEODE
+        .get()
+        .place(config, level, level.getChunkSource().getGenerator(), random, center);
+
+    // Swap the generated budding blocks for the quality mix under test
+    List<BlockPos> budding = new ArrayList<>();
+    for (BlockPos pos :
+        BlockPos.betweenClosed(helper.absolutePos(BlockPos.ZERO), farmCorner(helper))) {
+      if (level.getBlockState(pos).getBlock() instanceof BuddingCrystalBlock) {
+        BlockState state = type.getBuddingBlock(mix.pick(random)).get().defaultBlockState();
+        level.setBlock(pos, state, Block.UPDATE_CLIENTS);
+        budding.add(pos.immutable());
+      }
+    }
+    return budding;
+  }
+
+  private static int countBudStages(GameTestHelper helper) {
+    int stages = 0;
+    for (BlockPos pos :
+        BlockPos.betweenClosed(helper.absolutePos(BlockPos.ZERO), farmCorner(helper))) {
+      BlockState state = helper.getLevel().getBlockState(pos);
+      if (state.getBlock() instanceof CrystalBudBlock bud) {
+        stages += bud.getGrowthStage(state).getLevel();
+      }
+    }
+    return stages;
+  }
+
+  private static BlockPos farmCorner(GameTestHelper helper) {
+    return helper.absolutePos(new BlockPos(FARM_SIZE - 1, FARM_SIZE - 1, FARM_SIZE - 1));
+  }
+
+  /** Counters of a single simulated farm run */
+  private static final class FarmRun {
+    double expectedRolls;
+    double variance;
+    long passedRolls;
+    long growths;
+    long nanos;
+  }
+}
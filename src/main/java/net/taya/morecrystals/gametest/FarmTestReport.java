@@ -0,0 +1,90 @@
+package net.taya.morecrystals.gametest;
+
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import net.neoforged.fml.loading.FMLPaths;
+import net.taya.morecrystals.MoreCrystals;
+
+/**
+ * Collects the results of the {@link CrystalFarmTests} into a JSON report, so runs can be compared.
+ *
+ * <p>There is no hook after the last GameTest, so the whole report is rewritten after every test.
+ * It is only ever a few dozen entries.
+ */
+final class FarmTestReport {
+  private static final Gson GSON = new GsonBuilder().setPrettyPrinting().create();
+  private static final String REPORT_FILE = "morecrystals_farm_tests.json";
+
+  // GameTests run on the server thread, so this is never touched concurrently
+  private static final JsonArray RESULTS = new JsonArray();
+
+  private FarmTestReport() {}
+
+  /**
+   * Adds the result of a farm test to the report and writes it out
+   *
+   * @param test The test name
+   * @param layout The farm layout
+   * @param qualityMix The quality mix of the budding blocks
+   * @param seed The seed of the random source
+   * @param buddingBlocks The number of budding blocks in the farm
+   * @param ticks The number of simulated ticks
+   * @param expectedRolls The expected number of passed growth rolls
+   * @param deviation The standard deviation of the passed growth rolls
+   * @param passedRolls The number of growth rolls that passed
+   * @param growths The number of growths that changed a block
+   * @param grownStages The number of bud stages that grew in the world
+   * @param meanMillisPerTick The mean time spent growing per simulated tick
+   * @param maxMeanMillisPerTick The limit for the mean time per tick
+   */
+  static void record(
+      String test,
+      String layout,
+      String qualityMix,
+      long seed,
+      int buddingBlocks,
+      int ticks,
+      double expectedRolls,
+      double deviation,
+      long passedRolls,
+      long growths,
+      int grownStages,
+      double meanMillisPerTick,
+      double maxMeanMillisPerTick) {
+    JsonObject result = new JsonObject();
+    result.addProperty("test", test);
+    result.addProperty("layout", layout);
+    result.addProperty("qualityMix", qualityMix);
+    result.addProperty("seed", seed);
+    result.addProperty("buddingBlocks", buddingBlocks);
+    result.addProperty("ticks", ticks);
+    result.addProperty("expectedRolls", expectedRolls);
+    result.addProperty("deviation", deviation);
+    result.addProperty("passedRolls", passedRolls);
+    result.addProperty("growths", growths);
+    result.addProperty("grownStages", grownStages);
+    result.addProperty("meanMillisPerTick", meanMillisPerTick);
+    result.addProperty("maxMeanMillisPerTick", maxMeanMillisPerTick);
+    RESULTS.add(result);
+    write();
+  }
+
+  private static void write() {
+    JsonObject report = new JsonObject();
+    report.add("results", RESULTS);
+
+    Path path = FMLPaths.GAMEDIR.get().resolve(REPORT_FILE);
+    try (Writer writer = Files.newBufferedWriter(path, StandardCharsets.UTF_8)) {
+      GSON.toJson(report, writer);
+    } catch (IOException e) {
+      MoreCrystals.LOGGER.error("Failed to write the farm test report to {}", path, e);
+    }
+  }
+}
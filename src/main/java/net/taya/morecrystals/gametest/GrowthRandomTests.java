@@ -0,0 +1,63 @@
+package net.taya.morecrystals.gametest;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTestGenerator;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.gametest.framework.TestFunction;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.growth.GrowthRandom;
+import net.taya.morecrystals.growth.SplitMixRandom;
+
+/**
+ * Tests for the deterministic growth random sources of {@link GrowthRandom}.
+ *
+ * <p>Growth at one position rolls with a fresh source every tick, so the sources of consecutive
+ * ticks must not share values, or the rolls of one tick would repeat in other roles the next.
+ */
+@GameTestHolder(MoreCrystals.MODID)
+public class GrowthRandomTests {
+  private static final String BATCH = "growth_random";
+  private static final String TEMPLATE = MoreCrystals.MODID + ":crystal_farm";
+
+  // More values than a single growth ever draws
+  private static final int STREAM_LENGTH = 64;
+  private static final int TICKS = 1000;
+
+  @GameTestGenerator
+  public static List<TestFunction> randomTests() {
+    String name = "growthrandomtests.consecutive_ticks_independent";
+    return List.of(
+        new TestFunction(
+            BATCH, name, TEMPLATE, 1, 0L, true, GrowthRandomTests::consecutiveTicksIndependent));
+  }
+
+  private static void consecutiveTicksIndependent(GameTestHelper helper) {
+    long worldSeed = helper.getLevel().getSeed();
+    long key = helper.absolutePos(BlockPos.ZERO).asLong();
+
+    LongOpenHashSet previous = stream(worldSeed, key, 0);
+    for (long tick = 1; tick <= TICKS; tick++) {
+      LongOpenHashSet current = stream(worldSeed, key, tick);
+      for (LongIterator it = current.iterator(); it.hasNext(); ) {
+        if (previous.contains(it.nextLong())) {
+          helper.fail("The random source of tick " + tick + " repeats values of the tick before");
+        }
+      }
+      previous = current;
+    }
+    helper.succeed();
+  }
+
+  private static LongOpenHashSet stream(long worldSeed, long key, long gameTime) {
+    SplitMixRandom random = new SplitMixRandom(GrowthRandom.seed(worldSeed, key, gameTime));
+    LongOpenHashSet values = new LongOpenHashSet(STREAM_LENGTH);
+    for (int i = 0; i < STREAM_LENGTH; i++) {
+      values.add(random.nextLong());
+    }
+    return values;
+  }
+}
@@ -0,0 +1,171 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+
+/**
+ * Index of every crystal accelerator in a level, and of the sections they influence.
+ *
+ * <p>An accelerator influences every chunk section within {@link Config#acceleratorRange}
+ * sections of its own, so budding blocks look up their growth multiplier with a single hash map
+ * read of their section's accelerator count instead of searching for accelerators. Placing or
+ * removing an accelerator only updates the counts of the sections it covers.
+ *
+ * <p>Only the accelerator positions are saved. The section counts are rebuilt from them after
+ * loading and whenever the configured range changes.
+ */
+public final class AcceleratorIndex extends SavedData {
+  private static final String DATA_NAME = MoreCrystals.MODID + "_accelerators";
+
+  private static final SavedData.Factory<AcceleratorIndex> FACTORY =
+      new SavedData.Factory<>(AcceleratorIndex::new, AcceleratorIndex::load, null);
+
+  private final LongOpenHashSet accelerators = new LongOpenHashSet();
+
+  // Number of accelerators covering each section, keyed by section position
+  private final Long2IntOpenHashMap influence = new Long2IntOpenHashMap();
+  // The range the section counts were built with, -1 while they still have to be built
+  private int influenceRange = -1;
+
+  private AcceleratorIndex() {}
+
+  /**
+   * Gets the index of a level, loading or creating it if necessary
+   *
+   * @param level The level
+   * @return The level's accelerator index
+   */
+  public static AcceleratorIndex get(ServerLevel level) {
+    return level.getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+  }
+
+  /**
+   * Adds an accelerator to the index
+   *
+   * @param pos The position of the accelerator
+   */
+  public void add(BlockPos pos) {
+    if (accelerators.add(pos.asLong())) {
+      if (influenceRange >= 0) {
+        spread(pos.asLong(), 1);
+      }
+      setDirty();
+    }
+  }
+
+  /**
+   * Removes an accelerator from the index
+   *
+   * @param pos The position of the accelerator
+   */
+  public void remove(BlockPos pos) {
+    if (accelerators.remove(pos.asLong())) {
+      if (influenceRange >= 0) {
+        spread(pos.asLong(), -1);
+      }
+      setDirty();
+    }
+  }
+
+  /**
+   * Gets the growth multiplier of a budding block
+   *
+   * @param pos The position of the budding block
+   * @return The multiplier, 1 if no accelerator is in range
+   */
+  public float multiplier(BlockPos pos) {
+    return sectionMultiplier(SectionPos.asLong(pos));
+  }
+
+  /**
+   * Gets the growth multiplier of budding blocks in a chunk section
+   *
+   * @param sectionKey The section position as a long
+   * @return The multiplier, 1 if no accelerator is in range
+   */
+  public float sectionMultiplier(long sectionKey) {
+    if (accelerators.isEmpty()) {
+      return 1.0F;
+    }
+    if (influenceRange != Config.acceleratorRange) {
+      rebuildInfluence();
+    }
+
+    int count = influence.get(sectionKey);
+    if (count == 0) {
+      return 1.0F;
+    }
+    return (float)
+        Math.min(Config.acceleratorMaxMultiplier, 1.0 + count * Config.acceleratorBoost);
+  }
+
+  /**
+   * Turns a passed growth roll into a number of growth attempts, so that the expected number of
+   * attempts equals the multiplier
+   *
+   * @param multiplier The growth multiplier
+   * @param random The random source to roll with
+   * @return The number of growth attempts, at least 1 for multipliers of 1 or more
+   */
+  public static int growthAttempts(float multiplier, RandomSource random) {
+    int whole = (int) multiplier;
+    return random.nextFloat() < multiplier - whole ? whole + 1 : whole;
+  }
+
+  /** Gets the number of indexed accelerators */
+  public int size() {
+    return accelerators.size();
+  }
+
+  private void rebuildInfluence() {
+    influence.clear();
+    influenceRange = Config.acceleratorRange;
+    LongIterator iterator = accelerators.iterator();
+    while (iterator.hasNext()) {
+      spread(iterator.nextLong(), 1);
+    }
+    influence.trim();
+  }
+
+  // Adds delta to the count of every section within range of an accelerator
+  private void spread(long packedPos, int delta) {
+    int range = influenceRange;
+    int sectionX = SectionPos.blockToSectionCoord(BlockPos.getX(packedPos));
+    int sectionY = SectionPos.blockToSectionCoord(BlockPos.getY(packedPos));
+    int sectionZ = SectionPos.blockToSectionCoord(BlockPos.getZ(packedPos));
+    for (int x = sectionX - range; x <= sectionX + range; x++) {
+      for (int y = sectionY - range; y <= sectionY + range; y++) {
+        for (int z = sectionZ - range; z <= sectionZ + range; z++) {
+          long key = SectionPos.asLong(x, y, z);
+          if (influence.addTo(key, delta) + delta <= 0) {
+            influence.remove(key);
+          }
+        }
+      }
+    }
+  }
+
+  @Override
+  public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+    tag.putLongArray("accelerators", accelerators.toLongArray());
+    return tag;
+  }
+
+  private static AcceleratorIndex load(CompoundTag tag, HolderLookup.Provider registries) {
+    AcceleratorIndex index = new AcceleratorIndex();
+    for (long pos : tag.getLongArray("accelerators")) {
+      index.accelerators.add(pos);
+    }
+    return index;
+  }
+}
@@ -0,0 +1,410 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2LongMaps;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.HolderLookup;
+import net.minecraft.core.SectionPos;
+import net.minecraft.nbt.CompoundTag;
+import net.minecraft.nbt.ListTag;
+import net.minecraft.nbt.StringTag;
+import net.minecraft.nbt.Tag;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.dimension.DimensionType;
+import net.minecraft.world.level.saveddata.SavedData;
+import net.minecraft.world.level.storage.LevelResource;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Index of every budding crystal in a level, grouped by chunk.
+ *
+ * <p>Each budding block is stored as a single packed long holding its position within the chunk,
+ * its crystal type and its quality. The index is kept up to date as budding blocks are placed and
+ * removed, and is saved with the level so it never has to be rebuilt by scanning chunks.
+ *
+ * <p>On disk, the entries of all chunks are written to one long array as {@code chunk key, entry
+ * count, entries...}, next to the list of crystal type names the type ids refer to. With {@link
+ * Config.IndexStorage#JOURNAL}, the entries go to an {@link IndexJournal} in the dimension's data
+ * folder instead, which only appends the chunks that changed since the last save, and the NBT file
+ * just records that the journal holds the entries.
+ */
+public final class BuddingCrystalIndex extends SavedData {
+  private static final String DATA_NAME = MoreCrystals.MODID + "_budding_index";
+
+  private static final SavedData.Factory<BuddingCrystalIndex> FACTORY =
+      new SavedData.Factory<>(BuddingCrystalIndex::new, BuddingCrystalIndex::load, null);
+
+  // Packed entry layout: x (4 bits), z (4 bits), y (12 bits), quality (2 bits), type id (16 bits)
+  private static final int Y_SHIFT = 8;
+  private static final int QUALITY_SHIFT = 20;
+  private static final int TYPE_SHIFT = 22;
+  private static final long TYPE_MASK = 0xFFFFL;
+
+  private static final BuddingCrystalBlock.BuddingQuality[] QUALITIES =
+      BuddingCrystalBlock.BuddingQuality.values();
+
+  private final Long2ObjectOpenHashMap<IndexedLongSet> chunks = new Long2ObjectOpenHashMap<>();
+  private int size;
+
+  // Game time each chunk was last processed at, for chunks waiting on offline catch-up growth
+  private final Long2LongOpenHashMap lastProcessed = new Long2LongOpenHashMap();
+
+  // Chunks changed since the last save, written to the journal on the next save
+  private final LongOpenHashSet changedChunks = new LongOpenHashSet();
+  // Opened when the index is first requested for its level
+  @Nullable private IndexJournal journal;
+  // Whether the saved NBT left the entries to the journal
+  private boolean savedToJournal;
+  // Whether the journal's type list may be outdated, so the next save rewrites it in full
+  private boolean journalNeedsRewrite = true;
+
+  private BuddingCrystalIndex() {
+    lastProcessed.defaultReturnValue(-1);
+  }
+
+  /**
+   * Gets the index of a level, loading or creating it if necessary
+   *
+   * @param level The level
+   * @return The level's budding crystal index
+   */
+  public static BuddingCrystalIndex get(ServerLevel level) {
+    BuddingCrystalIndex index = level.getDataStorage().computeIfAbsent(FACTORY, DATA_NAME);
+    if (index.journal == null) {
+      index.openJournal(level);
+    }
+    return index;
+  }
+
+  /**
+   * Adds a budding block to the index
+   *
+   * @param pos The position of the block
+   * @param block The budding block
+   */
+  public void add(BlockPos pos, BuddingCrystalBlock block) {
+    IndexedLongSet chunk = chunks.get(ChunkPos.asLong(pos));
+    if (chunk == null) {
+      chunk = new IndexedLongSet();
+      chunks.put(ChunkPos.asLong(pos), chunk);
+    }
+    if (chunk.add(pack(pos, block.crystalType, block.quality))) {
+      size++;
+      changed(ChunkPos.asLong(pos));
+    }
+  }
+
+  /**
+   * Removes a budding block from the index
+   *
+   * @param pos The position of the block
+   * @param block The budding block that was at the position
+   */
+  public void remove(BlockPos pos, BuddingCrystalBlock block) {
+    removeEntry(ChunkPos.asLong(pos), pack(pos, block.crystalType, block.quality));
+  }
+
+  /**
+   * Removes a packed entry from a chunk. Empty chunks are kept until the next save, so this is
+   * safe to call while iterating over {@link #chunks()}.
+   *
+   * @param chunkKey The chunk the entry belongs to
+   * @param entry The packed entry
+   */
+  public void removeEntry(long chunkKey, long entry) {
+    IndexedLongSet chunk = chunks.get(chunkKey);
+    if (chunk != null && chunk.remove(entry)) {
+      size--;
+      changed(chunkKey);
+    }
+  }
+
+  /**
+   * Gets the packed entries of a chunk
+   *
+   * @param chunkKey The chunk position as a long
+   * @return The chunk's entries, or null if the chunk has none
+   */
+  @Nullable
+  public IndexedLongSet chunk(long chunkKey) {
+    return chunks.get(chunkKey);
+  }
+
+  /**
+   * Gets all chunks with indexed budding blocks, keyed by chunk position. Entries may be empty.
+   *
+   * @return Read-only view of the chunks
+   */
+  public Long2ObjectMap<IndexedLongSet> chunks() {
+    return Long2ObjectMaps.unmodifiable(chunks);
+  }
+
+  /**
+   * Gets the game time a chunk's budding blocks were last processed at
+   *
+   * @param chunkKey The chunk position as a long
+   * @return The game time, or -1 if the chunk has been processed continuously
+   */
+  public long lastProcessed(long chunkKey) {
+    return lastProcessed.get(chunkKey);
+  }
+
+  /**
+   * Records the game time a chunk's budding blocks were last processed at
+   *
+   * @param chunkKey The chunk position as a long
+   * @param gameTime The game time, or -1 to mark the chunk as processed continuously
+   */
+  public void setLastProcessed(long chunkKey, long gameTime) {
+    if (gameTime < 0) {
+      lastProcessed.remove(chunkKey);
+    } else {
+      lastProcessed.put(chunkKey, gameTime);
+    }
+    changed(chunkKey);
+  }
+
+  /** Gets the total number of indexed budding blocks */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Packs a budding block into an index entry
+   *
+   * @param pos The position of the block
+   * @param type The crystal type
+   * @param quality The budding quality
+   * @return The packed entry
+   */
+  public static long pack(
+      BlockPos pos, CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return SectionPos.sectionRelative(pos.getX())
+        | (long) SectionPos.sectionRelative(pos.getZ()) << 4
+        | (long) (pos.getY() & 0xFFF) << Y_SHIFT
+        | (long) quality.ordinal() << QUALITY_SHIFT
+        | (long) type.id << TYPE_SHIFT;
+  }
+
+  /**
+   * Unpacks the position of an index entry
+   *
+   * @param chunkKey The chunk the entry belongs to
+   * @param entry The packed entry
+   * @return The block position
+   */
+  public static BlockPos unpackPos(long chunkKey, long entry) {
+    int y = (int) (entry >> Y_SHIFT) & 0xFFF;
+    return new BlockPos(
+        SectionPos.sectionToBlockCoord(ChunkPos.getX(chunkKey), (int) entry & 0xF),
+        (y << 20) >> 20, // Sign extend the 12 bit y coordinate
+        SectionPos.sectionToBlockCoord(ChunkPos.getZ(chunkKey), (int) (entry >> 4) & 0xF));
+  }
+
+  /** Unpacks the crystal type of an index entry */
+  public static CrystalType unpackType(long entry) {
+    return CrystalType.REGISTRY.get((int) (entry >>> TYPE_SHIFT & TYPE_MASK));
+  }
+
+  /** Unpacks the budding quality of an index entry */
+  public static BuddingCrystalBlock.BuddingQuality unpackQuality(long entry) {
+    return QUALITIES[(int) (entry >> QUALITY_SHIFT) & 0x3];
+  }
+
+  private void changed(long chunkKey) {
+    changedChunks.add(chunkKey);
+    setDirty();
+  }
+
+  private static long withType(long entry, int typeId) {
+    return entry & ~(TYPE_MASK << TYPE_SHIFT) | (long) typeId << TYPE_SHIFT;
+  }
+
+  @Override
+  public CompoundTag save(CompoundTag tag, HolderLookup.Provider registries) {
+    // Falls back to NBT for this save if the journal can't be written
+    if (Config.indexStorage == Config.IndexStorage.JOURNAL && journal != null && saveJournal()) {
+      tag.putBoolean("journal", true);
+      return tag;
+    }
+
+    ListTag types = new ListTag();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      types.add(StringTag.valueOf(type.name));
+    }
+
+    LongArrayList data = new LongArrayList(size + chunks.size() * 2);
+    ObjectIterator<Long2ObjectMap.Entry<IndexedLongSet>> iterator =
+        Long2ObjectMaps.fastIterator(chunks);
+    while (iterator.hasNext()) {
+      Long2ObjectMap.Entry<IndexedLongSet> entry = iterator.next();
+      IndexedLongSet chunk = entry.getValue();
+      if (chunk.isEmpty()) {
+        iterator.remove();
+        continue;
+      }
+
+      data.add(entry.getLongKey());
+      data.add(chunk.size());
+      for (int i = 0; i < chunk.size(); i++) {
+        data.add(chunk.get(i));
+      }
+    }
+
+    // Pairs of chunk key and game time
+    LongArrayList processed = new LongArrayList(lastProcessed.size() * 2);
+    for (Long2LongMap.Entry entry : Long2LongMaps.fastIterable(lastProcessed)) {
+      processed.add(entry.getLongKey());
+      processed.add(entry.getLongValue());
+    }
+
+    tag.put("types", types);
+    tag.putLongArray("entries", data.toLongArray());
+    tag.putLongArray("lastProcessed", processed.toLongArray());
+
+    // The NBT holds everything now, so a journal left from earlier saves is stale
+    changedChunks.clear();
+    journalNeedsRewrite = true;
+    if (journal != null && journal.exists()) {
+      try {
+        journal.delete();
+      } catch (IOException e) {
+        MoreCrystals.LOGGER.warn("Failed to delete the budding crystal index journal", e);
+      }
+    }
+    return tag;
+  }
+
+  /**
+   * Writes the chunks changed since the last save to the journal
+   *
+   * @return false if the journal couldn't be written
+   */
+  private boolean saveJournal() {
+    List<String> types = new ArrayList<>();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      types.add(type.name);
+    }
+
+    try {
+      journal.write(this, types, changedChunks, journalNeedsRewrite);
+      journalNeedsRewrite = false;
+      changedChunks.clear();
+    } catch (IOException e) {
+      MoreCrystals.LOGGER.error("Failed to write the budding crystal index journal", e);
+      return false;
+    }
+
+    // Empty chunks are in the journal now, so they can go
+    chunks.values().removeIf(IndexedLongSet::isEmpty);
+    return true;
+  }
+
+  private void openJournal(ServerLevel level) {
+    Path folder =
+        DimensionType.getStorageFolder(
+            level.dimension(), level.getServer().getWorldPath(LevelResource.ROOT));
+    journal = new IndexJournal(folder.resolve("data").resolve(DATA_NAME + ".journal"));
+    if (!savedToJournal) {
+      return;
+    }
+
+    Long2ObjectOpenHashMap<long[]> saved = new Long2ObjectOpenHashMap<>();
+    try {
+      List<String> types = journal.read(saved, lastProcessed);
+      int[] typeIds = typeIds(types);
+      for (Long2ObjectMap.Entry<long[]> chunk : Long2ObjectMaps.fastIterable(saved)) {
+        for (long entry : chunk.getValue()) {
+          addSaved(chunk.getLongKey(), entry, typeIds);
+        }
+      }
+    } catch (IOException e) {
+      MoreCrystals.LOGGER.error(
+          "Failed to read the budding crystal index journal of {}, budding blocks are indexed "
+              + "again as they random tick",
+          level.dimension().location(),
+          e);
+    }
+    MoreCrystals.LOGGER.debug("Loaded {} indexed budding crystals from the journal", size);
+  }
+
+  // Maps saved type ids to the current ones, in case crystal types were added or removed
+  private static int[] typeIds(List<String> types) {
+    int[] typeIds = new int[types.size()];
+    Arrays.fill(typeIds, -1);
+    for (int i = 0; i < types.size(); i++) {
+      CrystalType type = CrystalType.REGISTRY.get(types.get(i));
+      if (type != null) {
+        typeIds[i] = type.id;
+      }
+    }
+    return typeIds;
+  }
+
+  private void addSaved(long chunkKey, long savedEntry, int[] typeIds) {
+    int savedTypeId = (int) (savedEntry >>> TYPE_SHIFT & TYPE_MASK);
+    if (savedTypeId >= typeIds.length || typeIds[savedTypeId] < 0) {
+      return; // The crystal type no longer exists
+    }
+
+    IndexedLongSet chunk = chunks.get(chunkKey);
+    if (chunk == null) {
+      chunk = new IndexedLongSet();
+      chunks.put(chunkKey, chunk);
+    }
+    if (chunk.add(withType(savedEntry, typeIds[savedTypeId]))) {
+      size++;
+    }
+  }
+
+  private static BuddingCrystalIndex load(CompoundTag tag, HolderLookup.Provider registries) {
+    BuddingCrystalIndex index = new BuddingCrystalIndex();
+    if (tag.getBoolean("journal")) {
+      // The entries are read from the journal once the index knows its level
+      index.savedToJournal = true;
+      return index;
+    }
+
+    ListTag savedTypes = tag.getList("types", Tag.TAG_STRING);
+    List<String> types = new ArrayList<>(savedTypes.size());
+    for (int i = 0; i < savedTypes.size(); i++) {
+      types.add(savedTypes.getString(i));
+    }
+    int[] typeIds = typeIds(types);
+
+    long[] data = tag.getLongArray("entries");
+    int i = 0;
+    while (i + 1 < data.length) {
+      long chunkKey = data[i++];
+      int count = (int) data[i++];
+      for (int end = Math.min(i + count, data.length); i < end; i++) {
+        index.addSaved(chunkKey, data[i], typeIds);
+      }
+    }
+
+    long[] processed = tag.getLongArray("lastProcessed");
+    for (int j = 0; j + 1 < processed.length; j += 2) {
+      index.lastProcessed.put(processed[j], processed[j + 1]);
+    }
+
+    MoreCrystals.LOGGER.debug("Loaded {} indexed budding crystals", index.size);
+    return index;
+  }
+}
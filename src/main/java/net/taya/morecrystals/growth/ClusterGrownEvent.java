@@ -0,0 +1,42 @@
+package net.taya.morecrystals.growth;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.Event;
+
+/**
+ * Fired on the game event bus when crystal growth turns a bud into a fully grown cluster. The
+ * position is also queued in the {@link HarvestQueue}, so listening to this event is only needed
+ * for machines that want to react right away.
+ */
+public class ClusterGrownEvent extends Event {
+  private final ServerLevel level;
+  private final BlockPos pos;
+  private final BlockState state;
+
+  /**
+   * Creates a new cluster grown event
+   *
+   * @param level The level the cluster grew in
+   * @param pos The position of the cluster
+   * @param state The cluster's block state
+   */
+  public ClusterGrownEvent(ServerLevel level, BlockPos pos, BlockState state) {
+    this.level = level;
+    this.pos = pos;
+    this.state = state;
+  }
+
+  public ServerLevel getLevel() {
+    return level;
+  }
+
+  public BlockPos getPos() {
+    return pos;
+  }
+
+  public BlockState getState() {
+    return state;
+  }
+}
@@ -0,0 +1,70 @@
+package net.taya.morecrystals.growth;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+
+/**
+ * Adds the budding blocks of freshly generated chunks to the {@link BuddingCrystalIndex}.
+ *
+ * <p>Geodes write their blocks straight into chunk sections during world generation, so {@code
+ * onPlace} never runs for them. Once a new chunk is loaded, every section whose palette may hold a
+ * budding block is scanned and its budding blocks are indexed. Sections without budding blocks are
+ * skipped by the palette check without looking at their blocks.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GeneratedChunkIndexer {
+  private static final int SECTION_SIZE = 16;
+
+  private GeneratedChunkIndexer() {}
+
+  @SubscribeEvent
+  public static void onChunkLoad(ChunkEvent.Load event) {
+    if (!event.isNewChunk() || !(event.getLevel() instanceof ServerLevel level)) {
+      return;
+    }
+
+    ChunkAccess chunk = event.getChunk();
+    BuddingCrystalIndex index = null;
+    BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    int indexed = 0;
+    LevelChunkSection[] sections = chunk.getSections();
+    for (int i = 0; i < sections.length; i++) {
+      LevelChunkSection section = sections[i];
+      if (section.hasOnlyAir()
+          || !section.maybeHas(state -> state.getBlock() instanceof BuddingCrystalBlock)) {
+        continue;
+      }
+
+      int minY = SectionPos.sectionToBlockCoord(chunk.getSectionYFromSectionIndex(i));
+      for (int y = 0; y < SECTION_SIZE; y++) {
+        for (int z = 0; z < SECTION_SIZE; z++) {
+          for (int x = 0; x < SECTION_SIZE; x++) {
+            BlockState state = section.getBlockState(x, y, z);
+            if (state.getBlock() instanceof BuddingCrystalBlock buddingBlock) {
+              if (index == null) {
+                index = BuddingCrystalIndex.get(level);
+              }
+              pos.set(chunk.getPos().getBlockX(x), minY + y, chunk.getPos().getBlockZ(z));
+              index.add(pos, buddingBlock);
+              indexed++;
+            }
+          }
+        }
+      }
+    }
+
+    if (indexed > 0) {
+      MoreCrystals.LOGGER.debug(
+          "Indexed {} generated budding crystals in chunk {}", indexed, chunk.getPos());
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayFIFOQueue;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+
+/**
+ * Caps the crystal growth work done per server tick at {@link Config#growthBudget} growths and
+ * {@link Config#growthBudgetMicros} microseconds.
+ *
+ * <p>Growths that pass their roll once the budget is used up are deferred into a bounded queue per
+ * level and replayed at the start of later level ticks, as far as the budget allows. The queue is
+ * drained round-robin across chunks, one growth per chunk per round, so a single large farm can't
+ * hold back growth everywhere else. When the queue is full further growths are dropped, which only
+ * slows growth down while the server is overloaded.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GrowthBudget {
+  // Deferred growths per dimension, only touched from the server thread
+  private static final Map<ResourceKey<Level>, DeferredGrowths> DEFERRED = new HashMap<>();
+
+  // Work done in the current server tick, shared by all levels
+  private static int growthsThisTick;
+  private static long nanosThisTick;
+
+  private GrowthBudget() {}
+
+  /**
+   * Grows a budding block whose growth roll passed, or defers the growth if this tick's budget is
+   * used up
+   *
+   * @param level The level to grow in
+   * @param pos The position of the budding block
+   * @param buddingBlock The budding block
+   * @param random The random source to roll with
+   */
+  public static void grow(
+      ServerLevel level, BlockPos pos, BuddingCrystalBlock buddingBlock, RandomSource random) {
+    if (hasBudget()) {
+      attemptGrowth(level, pos, buddingBlock, random);
+    } else {
+      DEFERRED.computeIfAbsent(level.dimension(), key -> new DeferredGrowths()).add(pos);
+    }
+  }
+
+  /**
+   * Grows a budding block whose growth roll passed as often as the accelerators in range call
+   * for, on average. Each growth counts against the budget on its own.
+   *
+   * @param level The level to grow in
+   * @param pos The position of the budding block
+   * @param buddingBlock The budding block
+   * @param random The random source to roll with
+   */
+  public static void growAccelerated(
+      ServerLevel level, BlockPos pos, BuddingCrystalBlock buddingBlock, RandomSource random) {
+    int attempts =
+        AcceleratorIndex.growthAttempts(AcceleratorIndex.get(level).multiplier(pos), random);
+    grow(level, pos, buddingBlock, random);
+    // Stop once an earlier growth deteriorated the budding block
+    for (int i = 1; i < attempts && level.getBlockState(pos).is(buddingBlock); i++) {
+      grow(level, pos, buddingBlock, random);
+    }
+  }
+
+  /**
+   * Applies a growth planned ahead of time, or defers it if this tick's budget is used up. A
+   * deferred growth rolls its direction again once it runs.
+   *
+   * @param level The level to grow in
+   * @param pos The position of the budding block
+   * @param buddingBlock The budding block
+   * @param direction The face to grow on
+   * @param deteriorate Whether the planned deterioration roll passed
+   */
+  public static void growPlanned(
+      ServerLevel level,
+      BlockPos pos,
+      BuddingCrystalBlock buddingBlock,
+      Direction direction,
+      boolean deteriorate) {
+    if (!hasBudget()) {
+      DEFERRED.computeIfAbsent(level.dimension(), key -> new DeferredGrowths()).add(pos);
+      return;
+    }
+
+    growthsThisTick++;
+    if (Config.growthBudgetMicros > 0) {
+      long start = System.nanoTime();
+      buddingBlock.applyPlannedGrowth(level, pos, direction, deteriorate);
+      nanosThisTick += System.nanoTime() - start;
+    } else {
+      buddingBlock.applyPlannedGrowth(level, pos, direction, deteriorate);
+    }
+  }
+
+  /**
+   * Gets the number of growths currently waiting for budget in a level
+   *
+   * @param level The level to check
+   * @return The number of deferred growths
+   */
+  public static int deferredCount(ServerLevel level) {
+    DeferredGrowths deferred = DEFERRED.get(level.dimension());
+    return deferred == null ? 0 : deferred.size;
+  }
+
+  @SubscribeEvent
+  public static void onServerTick(ServerTickEvent.Pre event) {
+    growthsThisTick = 0;
+    nanosThisTick = 0L;
+  }
+
+  @SubscribeEvent
+  public static void onLevelTick(LevelTickEvent.Pre event) {
+    // Deferred growths go first so they can't be starved by new ones
+    if (event.getLevel() instanceof ServerLevel level) {
+      DeferredGrowths deferred = DEFERRED.get(level.dimension());
+      if (deferred != null) {
+        deferred.drain(level);
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      DEFERRED.remove(level.dimension());
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopped(ServerStoppedEvent event) {
+    DEFERRED.clear();
+  }
+
+  private static boolean hasBudget() {
+    return (Config.growthBudget <= 0 || growthsThisTick < Config.growthBudget)
+        && (Config.growthBudgetMicros <= 0 || nanosThisTick < Config.growthBudgetMicros * 1000L);
+  }
+
+  private static void attemptGrowth(
+      ServerLevel level, BlockPos pos, BuddingCrystalBlock buddingBlock, RandomSource random) {
+    growthsThisTick++;
+    // Only read the clock when there is a time budget to check against
+    if (Config.growthBudgetMicros > 0) {
+      long start = System.nanoTime();
+      buddingBlock.attemptGrowth(level, pos, random);
+      nanosThisTick += System.nanoTime() - start;
+    } else {
+      buddingBlock.attemptGrowth(level, pos, random);
+    }
+  }
+
+  /** Growths of a single level waiting for budget, queued per chunk */
+  private static final class DeferredGrowths {
+    private final Long2ObjectOpenHashMap<LongArrayFIFOQueue> byChunk =
+        new Long2ObjectOpenHashMap<>();
+    // Chunks with queued growths, in the order they get their next turn
+    private final LongArrayFIFOQueue chunkOrder = new LongArrayFIFOQueue();
+    private int size;
+
+    void add(BlockPos pos) {
+      if (size >= Config.deferredGrowthLimit) {
+        return;
+      }
+
+      long chunkKey = ChunkPos.asLong(pos);
+      LongArrayFIFOQueue queue = byChunk.get(chunkKey);
+      if (queue == null) {
+        queue = new LongArrayFIFOQueue();
+        byChunk.put(chunkKey, queue);
+        chunkOrder.enqueue(chunkKey);
+      }
+      queue.enqueue(pos.asLong());
+      size++;
+    }
+
+    void drain(ServerLevel level) {
+      RandomSource random = level.getRandom();
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      while (!chunkOrder.isEmpty() && hasBudget()) {
+        long chunkKey = chunkOrder.dequeueLong();
+        LongArrayFIFOQueue queue = byChunk.get(chunkKey);
+        pos.set(queue.dequeueLong());
+        size--;
+
+        // Give the chunk another turn after all other chunks if it has more growths queued
+        if (queue.isEmpty()) {
+          byChunk.remove(chunkKey);
+        } else {
+          chunkOrder.enqueue(chunkKey);
+        }
+
+        // The chunk may have unloaded or the block changed since the growth was deferred
+        if (!level.hasChunk(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey))) {
+          continue;
+        }
+        BlockState state = level.getBlockState(pos);
+        if (state.getBlock() instanceof BuddingCrystalBlock buddingBlock) {
+          attemptGrowth(
+              level, pos.immutable(), buddingBlock, GrowthRandom.at(level, pos, random));
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,274 @@
+package net.taya.morecrystals.growth;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import net.minecraft.server.MinecraftServer;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.fml.loading.FMLPaths;
+import net.neoforged.neoforge.event.server.ServerStartedEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+
+/**
+ * Counts crystal growth work per crystal type while {@link Config#growthMetrics} is enabled.
+ *
+ * <p>Counters are {@link LongAdder}s, which stripe increments across cells under contention, so
+ * recording never blocks the ticking thread. When metrics are disabled every method returns after
+ * a single field read and {@link #start()} does not read the clock.
+ *
+ * <p>Time is measured around random ticks and around growth attempts of the {@link
+ * GrowthScheduler}. Offline catch-up is counted but not timed, since it only runs on chunk load.
+ * Growth in anything but a live server level, like {@code /morecrystals simulate}, is not counted.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GrowthMetrics {
+  /** The counted events, in column order */
+  public enum Metric {
+    TICKS("ticks"), // Random ticks received
+    ROLLS_PASSED("rollsPassed"), // Growth chance rolls that passed, in every growth mode
+    ATTEMPTS("growthAttempts"), // Growth attempts, including extra accelerator and offline ones
+    BUDS_CREATED("budsCreated"), // New buds placed on air
+    BUDS_ADVANCED("budsAdvanced"), // Existing buds grown to the next stage
+    DETERIORATIONS("deteriorations"), // Budding blocks that lost quality
+    NANOS("nanos"); // Cumulative time spent in timed growth paths
+
+    private static final Metric[] VALUES = values();
+
+    private final String key;
+
+    Metric(String key) {
+      this.key = key;
+    }
+
+    /**
+     * Gets the name used for this metric in command output and CSV headers
+     *
+     * @return The metric name
+     */
+    public String getKey() {
+      return key;
+    }
+  }
+
+  private static final String CSV_FILE = "morecrystals_metrics.csv";
+
+  // Indexed by type id * metric count + metric ordinal; types are frozen before this class loads
+  private static final LongAdder[] COUNTERS =
+      new LongAdder[CrystalType.REGISTRY.size() * Metric.VALUES.length];
+
+  static {
+    for (int i = 0; i < COUNTERS.length; i++) {
+      COUNTERS[i] = new LongAdder();
+    }
+  }
+
+  // Server tick count when the counters were last reset, for per-tick averages
+  private static volatile int resetTick;
+
+  private GrowthMetrics() {}
+
+  /**
+   * Starts timing a growth path
+   *
+   * @return The start time to pass to {@link #recordTick} or {@link #recordTime}, or 0 if metrics
+   *     are disabled
+   */
+  public static long start() {
+    return Config.growthMetrics ? System.nanoTime() : 0L;
+  }
+
+  /**
+   * Records a received random tick and the time spent handling it
+   *
+   * @param type The crystal type of the ticked block
+   * @param start The value returned by {@link #start()} before handling the tick
+   */
+  public static void recordTick(CrystalType type, long start) {
+    if (Config.growthMetrics) {
+      counter(type, Metric.TICKS).increment();
+      recordTime(type, start);
+    }
+  }
+
+  /**
+   * Records time spent in a growth path
+   *
+   * @param type The crystal type that grew
+   * @param start The value returned by {@link #start()} before entering the path
+   */
+  public static void recordTime(CrystalType type, long start) {
+    // A start of 0 means metrics were enabled while the path was running
+    if (Config.growthMetrics && start != 0L) {
+      counter(type, Metric.NANOS).add(System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Counts a single event
+   *
+   * @param type The crystal type the event happened for
+   * @param metric The event to count
+   */
+  public static void increment(CrystalType type, Metric metric) {
+    if (Config.growthMetrics) {
+      counter(type, metric).increment();
+    }
+  }
+
+  /**
+   * Gets the current counters of every crystal type
+   *
+   * @return One snapshot per crystal type, in registry order
+   */
+  public static List<Snapshot> snapshot() {
+    List<Snapshot> snapshots = new ArrayList<>(CrystalType.REGISTRY.size());
+    for (CrystalType type : CrystalType.REGISTRY) {
+      long[] values = new long[Metric.VALUES.length];
+      for (Metric metric : Metric.VALUES) {
+        values[metric.ordinal()] = counter(type, metric).sum();
+      }
+      snapshots.add(new Snapshot(type, values));
+    }
+    return snapshots;
+  }
+
+  /**
+   * Resets all counters
+   *
+   * @param server The server, to start counting ticks from
+   */
+  public static void reset(MinecraftServer server) {
+    for (LongAdder counter : COUNTERS) {
+      counter.reset();
+    }
+    resetTick = server.getTickCount();
+  }
+
+  /**
+   * Gets the number of server ticks since the counters were last reset
+   *
+   * @param server The server to read the tick count from
+   * @return The elapsed ticks, at least 1
+   */
+  public static int ticksSinceReset(MinecraftServer server) {
+    return Math.max(1, server.getTickCount() - resetTick);
+  }
+
+  @SubscribeEvent
+  public static void onServerStarted(ServerStartedEvent event) {
+    reset(event.getServer());
+  }
+
+  @SubscribeEvent
+  public static void onServerTick(ServerTickEvent.Post event) {
+    int interval = Config.metricsDumpInterval;
+    if (!Config.growthMetrics || interval <= 0) {
+      return;
+    }
+
+    MinecraftServer server = event.getServer();
+    if (server.getTickCount() % interval != 0) {
+      return;
+    }
+
+    switch (Config.metricsDumpTarget) {
+      case LOG -> dumpToLog(server);
+      case CSV -> dumpToCsv(server);
+    }
+  }
+
+  private static void dumpToLog(MinecraftServer server) {
+    int ticks = ticksSinceReset(server);
+    for (Snapshot snapshot : snapshot()) {
+      MoreCrystals.LOGGER.info("Growth metrics over {} ticks: {}", ticks, snapshot.describe(ticks));
+    }
+  }
+
+  private static void dumpToCsv(MinecraftServer server) {
+    Path path = FMLPaths.GAMEDIR.get().resolve("logs").resolve(CSV_FILE);
+    try {
+      Files.createDirectories(path.getParent());
+      boolean writeHeader = !Files.exists(path);
+      try (BufferedWriter writer =
+          Files.newBufferedWriter(
+              path,
+              StandardCharsets.UTF_8,
+              StandardOpenOption.CREATE,
+              StandardOpenOption.APPEND)) {
+        if (writeHeader) {
+          writer.write("serverTick,elapsedTicks,type");
+          for (Metric metric : Metric.VALUES) {
+            writer.write(',');
+            writer.write(metric.getKey());
+          }
+          writer.newLine();
+        }
+
+        int ticks = ticksSinceReset(server);
+        for (Snapshot snapshot : snapshot()) {
+          writer.write(server.getTickCount() + "," + ticks + "," + snapshot.type().name);
+          for (Metric metric : Metric.VALUES) {
+            writer.write(',');
+            writer.write(Long.toString(snapshot.get(metric)));
+          }
+          writer.newLine();
+        }
+      }
+    } catch (IOException e) {
+      MoreCrystals.LOGGER.error("Failed to write growth metrics to {}", path, e);
+    }
+  }
+
+  private static LongAdder counter(CrystalType type, Metric metric) {
+    return COUNTERS[type.id * Metric.VALUES.length + metric.ordinal()];
+  }
+
+  /**
+   * The counters of a single crystal type at one point in time
+   *
+   * @param type The crystal type
+   * @param values The counter values indexed by metric ordinal
+   */
+  public record Snapshot(CrystalType type, long[] values) {
+    /**
+     * Gets the value of a single counter
+     *
+     * @param metric The metric to read
+     * @return The counter value
+     */
+    public long get(Metric metric) {
+      return values[metric.ordinal()];
+    }
+
+    /**
+     * Formats the counters as a single line
+     *
+     * @param elapsedTicks The server ticks the counters cover, for the time per tick
+     * @return A human readable summary
+     */
+    public String describe(int elapsedTicks) {
+      double microsPerTick = get(Metric.NANOS) / 1000.0D / elapsedTicks;
+      return String.format(
+          "%s: %d ticks, %d rolls passed, %d growth attempts, %d buds created, "
+              + "%d buds advanced, %d deteriorations, %.2f us/tick",
+          type.name,
+          get(Metric.TICKS),
+          get(Metric.ROLLS_PASSED),
+          get(Metric.ATTEMPTS),
+          get(Metric.BUDS_CREATED),
+          get(Metric.BUDS_ADVANCED),
+          get(Metric.DETERIORATIONS),
+          microsPerTick);
+    }
+  }
+}
@@ -0,0 +1,283 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import net.minecraft.Util;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Drives budding crystal growth when {@link Config.GrowthMode#ASYNC} is enabled.
+ *
+ * <p>At the end of a level tick, the entries of every ticking chunk of the {@link
+ * BuddingCrystalIndex} are copied and handed to worker threads. The workers sample which blocks
+ * pass their growth roll over the ticks since the last plan, at the same rates as {@link
+ * GrowthScheduler}, and roll the face each growth goes to and whether it deteriorates. The server
+ * thread never waits for them: once a plan is done, a later tick commits it and starts the next.
+ *
+ * <p>Committing only validates and writes. A planned growth whose budding block has been removed
+ * or changed since the snapshot is skipped, and the bud on the planned face is read when the growth
+ * is applied, so growth never works from stale block states.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GrowthPlanner {
+  // Chunks planned by a single worker task
+  private static final int CHUNKS_PER_TASK = 64;
+  // Most ticks a single plan covers, so a long stall can't produce an unbounded plan
+  private static final long MAX_ELAPSED_TICKS = 20;
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // Planners per dimension, only touched from the server thread
+  private static final Map<ResourceKey<Level>, LevelPlanner> PLANNERS = new HashMap<>();
+
+  private GrowthPlanner() {}
+
+  @SubscribeEvent
+  public static void onLevelTick(LevelTickEvent.Post event) {
+    if (!(event.getLevel() instanceof ServerLevel level)) {
+      return;
+    }
+    if (Config.growthMode != Config.GrowthMode.ASYNC) {
+      // Another driver handles these ticks, so start over with a fresh plan once ASYNC is back
+      PLANNERS.remove(level.dimension());
+      return;
+    }
+
+    PLANNERS.computeIfAbsent(level.dimension(), key -> new LevelPlanner()).tick(level);
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      PLANNERS.remove(level.dimension());
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopped(ServerStoppedEvent event) {
+    PLANNERS.clear();
+  }
+
+  /**
+   * The entries of a chunk as they were when planning started
+   *
+   * @param chunkKey The chunk position as a long
+   * @param entries The packed index entries
+   * @param multipliers The accelerator multiplier per section, null if there are no accelerators
+   * @param random The random source to plan with, not shared with any other chunk
+   */
+  private record ChunkSnapshot(
+      long chunkKey, long[] entries, @Nullable float[] multipliers, RandomSource random) {}
+
+  /**
+   * A growth rolled by a worker, waiting to be committed
+   *
+   * @param chunkKey The chunk of the budding block
+   * @param entry The index entry of the budding block when it was planned
+   * @param direction The face to grow on
+   * @param deteriorate Whether the deterioration roll passed
+   */
+  private record PlannedGrowth(
+      long chunkKey, long entry, Direction direction, boolean deteriorate) {}
+
+  /** The plan in progress for a single level */
+  private static final class LevelPlanner {
+    @Nullable private CompletableFuture<List<PlannedGrowth>> plan;
+    // Game time the last plan was started at, -1 before the first
+    private long lastPlanned = -1;
+
+    void tick(ServerLevel level) {
+      if (plan != null) {
+        // Never wait for the workers, the next plan covers the ticks in between
+        if (!plan.isDone()) {
+          return;
+        }
+        commit(level, plan);
+        plan = null;
+      }
+
+      long now = level.getGameTime();
+      long elapsed = lastPlanned < 0 ? 1 : Math.min(now - lastPlanned, MAX_ELAPSED_TICKS);
+      lastPlanned = now;
+      plan = start(level, elapsed);
+    }
+
+    @Nullable
+    private static CompletableFuture<List<PlannedGrowth>> start(ServerLevel level, long elapsed) {
+      // Sample at the highest rate of all blocks and thin out slower ones when a block is picked
+      float maxGrowthChance = GrowthRates.maxGrowthChance();
+      double rate = GrowthRates.randomTicksPerTick(level) * maxGrowthChance * elapsed;
+      if (rate <= 0.0D) {
+        return null;
+      }
+
+      // Everything the workers read is copied here, they never touch the level
+      BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+      AcceleratorIndex accelerators = AcceleratorIndex.get(level);
+      List<CompletableFuture<List<PlannedGrowth>>> tasks = new ArrayList<>();
+      List<ChunkSnapshot> batch = new ArrayList<>(CHUNKS_PER_TASK);
+      for (Long2ObjectMap.Entry<IndexedLongSet> entry :
+          Long2ObjectMaps.fastIterable(index.chunks())) {
+        long chunkKey = entry.getLongKey();
+        IndexedLongSet chunk = entry.getValue();
+        if (chunk.isEmpty() || !level.shouldTickBlocksAt(chunkKey)) {
+          continue;
+        }
+
+        batch.add(
+            new ChunkSnapshot(
+                chunkKey,
+                chunk.snapshot(),
+                sectionMultipliers(level, accelerators, chunkKey),
+                GrowthRandom.forWorker(level, chunkKey)));
+        if (batch.size() == CHUNKS_PER_TASK) {
+          tasks.add(plan(batch, rate, maxGrowthChance, level.getMinSection()));
+          batch = new ArrayList<>(CHUNKS_PER_TASK);
+        }
+      }
+      if (!batch.isEmpty()) {
+        tasks.add(plan(batch, rate, maxGrowthChance, level.getMinSection()));
+      }
+      if (tasks.isEmpty()) {
+        return null;
+      }
+
+      return CompletableFuture.allOf(tasks.toArray(CompletableFuture[]::new))
+          .thenApply(
+              done -> {
+                List<PlannedGrowth> growths = new ArrayList<>();
+                for (CompletableFuture<List<PlannedGrowth>> task : tasks) {
+                  growths.addAll(task.join());
+                }
+                return growths;
+              });
+    }
+
+    @Nullable
+    private static float[] sectionMultipliers(
+        ServerLevel level, AcceleratorIndex accelerators, long chunkKey) {
+      if (accelerators.size() == 0) {
+        return null;
+      }
+
+      float[] multipliers = new float[level.getSectionsCount()];
+      for (int i = 0; i < multipliers.length; i++) {
+        multipliers[i] =
+            accelerators.sectionMultiplier(
+                SectionPos.asLong(
+                    ChunkPos.getX(chunkKey), level.getMinSection() + i, ChunkPos.getZ(chunkKey)));
+      }
+      return multipliers;
+    }
+
+    private static CompletableFuture<List<PlannedGrowth>> plan(
+        List<ChunkSnapshot> batch, double rate, float maxGrowthChance, int minSection) {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            List<PlannedGrowth> growths = new ArrayList<>();
+            for (ChunkSnapshot chunk : batch) {
+              planChunk(chunk, rate, maxGrowthChance, minSection, growths);
+            }
+            return growths;
+          },
+          Util.backgroundExecutor());
+    }
+
+    // Runs on a worker thread
+    private static void planChunk(
+        ChunkSnapshot chunk,
+        double rate,
+        float maxGrowthChance,
+        int minSection,
+        List<PlannedGrowth> growths) {
+      long[] entries = chunk.entries();
+      RandomSource random = chunk.random();
+      long candidates = GrowthRates.samplePoisson(random, entries.length * rate);
+      for (long i = 0; i < candidates; i++) {
+        long entry = entries[random.nextInt(entries.length)];
+        CrystalType type = BuddingCrystalIndex.unpackType(entry);
+        BuddingCrystalBlock.BuddingQuality quality = BuddingCrystalIndex.unpackQuality(entry);
+        if (random.nextFloat() * maxGrowthChance >= GrowthRates.growthChance(type, quality)) {
+          continue;
+        }
+        // Counted when rolled, whether or not the growth is still valid once committed
+        GrowthMetrics.increment(type, GrowthMetrics.Metric.ROLLS_PASSED);
+
+        float multiplier = 1.0F;
+        if (chunk.multipliers() != null) {
+          int y = BuddingCrystalIndex.unpackPos(chunk.chunkKey(), entry).getY();
+          multiplier = chunk.multipliers()[SectionPos.blockToSectionCoord(y) - minSection];
+        }
+
+        BuddingCrystalBlock buddingBlock =
+            (BuddingCrystalBlock) type.getBuddingBlock(quality).get();
+        int attempts = AcceleratorIndex.growthAttempts(multiplier, random);
+        for (int attempt = 0; attempt < attempts; attempt++) {
+          Direction direction = DIRECTIONS[random.nextInt(DIRECTIONS.length)];
+          growths.add(
+              new PlannedGrowth(
+                  chunk.chunkKey(), entry, direction, buddingBlock.rollDeterioration(random)));
+        }
+      }
+    }
+
+    private static void commit(ServerLevel level, CompletableFuture<List<PlannedGrowth>> plan) {
+      List<PlannedGrowth> growths;
+      try {
+        growths = plan.join();
+      } catch (CompletionException e) {
+        MoreCrystals.LOGGER.error("Failed to plan crystal growth in {}", level.dimension(), e);
+        return;
+      }
+
+      BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+      for (PlannedGrowth growth : growths) {
+        // The chunk may have unloaded since it was planned
+        if (!level.shouldTickBlocksAt(growth.chunkKey())) {
+          continue;
+        }
+
+        BlockPos pos = BuddingCrystalIndex.unpackPos(growth.chunkKey(), growth.entry());
+        BlockState state = level.getBlockState(pos);
+        if (!(state.getBlock() instanceof BuddingCrystalBlock buddingBlock)) {
+          // The block was replaced without notifying us (e.g. by a structure), forget it
+          index.removeEntry(growth.chunkKey(), growth.entry());
+          continue;
+        }
+        // Deteriorated or replaced by another budding block since the snapshot
+        if (BuddingCrystalIndex.pack(pos, buddingBlock.crystalType, buddingBlock.quality)
+            != growth.entry()) {
+          continue;
+        }
+
+        long start = GrowthMetrics.start();
+        GrowthBudget.growPlanned(
+            level, pos, buddingBlock, growth.direction(), growth.deteriorate());
+        GrowthMetrics.recordTime(buddingBlock.crystalType, start);
+      }
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package net.taya.morecrystals.growth;
+
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.levelgen.RandomSupport;
+import net.taya.morecrystals.Config;
+
+/**
+ * Picks the random source crystal growth rolls with.
+ *
+ * <p>By default growth shares the level's random source. With deterministic growth enabled, every
+ * growth gets its own {@link SplitMixRandom} seeded from the world seed, the position of the
+ * budding block (or the chunk, for per-chunk sampling) and the game time. The same world then
+ * grows the same way on every run, no matter what else used the level's random source, and no
+ * state is shared between positions.
+ */
+public final class GrowthRandom {
+  // Keeps chunk seeds apart from block seeds with the same packed value
+  private static final long CHUNK_SALT = 0x6A09E667F3BCC909L;
+
+  private GrowthRandom() {}
+
+  /**
+   * Gets the random source for a growth at a block
+   *
+   * @param level The level the block is in
+   * @param pos The position of the budding block
+   * @param shared The random source used when growth isn't deterministic
+   * @return A source seeded from the block and game time, or {@code shared}
+   */
+  public static RandomSource at(ServerLevel level, BlockPos pos, RandomSource shared) {
+    return Config.deterministicGrowth ? create(level, pos.asLong()) : shared;
+  }
+
+  /**
+   * Gets the random source for growth sampled per chunk
+   *
+   * @param level The level the chunk is in
+   * @param chunkKey The chunk position as a long
+   * @param shared The random source used when growth isn't deterministic
+   * @return A source seeded from the chunk and game time, or {@code shared}
+   */
+  public static RandomSource forChunk(ServerLevel level, long chunkKey, RandomSource shared) {
+    return Config.deterministicGrowth ? create(level, chunkKey ^ CHUNK_SALT) : shared;
+  }
+
+  /**
+   * Gets a random source for growth of a chunk that is planned on another thread
+   *
+   * @param level The level the chunk is in, only used on the calling thread
+   * @param chunkKey The chunk position as a long
+   * @return A source seeded from the chunk and game time, or from the level's random source
+   */
+  public static RandomSource forWorker(ServerLevel level, long chunkKey) {
+    return Config.deterministicGrowth
+        ? create(level, chunkKey ^ CHUNK_SALT)
+        : new SplitMixRandom(level.getRandom().nextLong());
+  }
+
+  /**
+   * Gets the seed of a deterministic growth random source
+   *
+   * @param worldSeed The world seed
+   * @param key The packed block position, or the salted chunk position
+   * @param gameTime The game time of the growth
+   * @return The seed for a {@link SplitMixRandom}
+   */
+  public static long seed(long worldSeed, long key, long gameTime) {
+    long base = RandomSupport.mixStafford13(worldSeed ^ RandomSupport.mixStafford13(key));
+    // Hashed rather than stepped, since a multiple of the SplitMix step would only shift the
+    // stream of the previous tick
+    return RandomSupport.mixStafford13(base ^ RandomSupport.mixStafford13(gameTime));
+  }
+
+  private static SplitMixRandom create(ServerLevel level, long key) {
+    return new SplitMixRandom(seed(level.getSeed(), key, level.getGameTime()));
+  }
+}
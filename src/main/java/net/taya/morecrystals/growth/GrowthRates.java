@@ -0,0 +1,151 @@
+package net.taya.morecrystals.growth;
+
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.GameRules;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+
+/**
+ * Growth rate math shared by random ticks and everything that grows crystals without rolling on
+ * each random tick. All rates are derived from the random tick speed, the configured chances and
+ * the crystal type weights, so every growth path produces the same rates on average.
+ *
+ * <p>Chances per crystal type and quality are resolved into a flat array when the config loads, so
+ * looking one up on the tick path is a single array load.
+ */
+public final class GrowthRates {
+  // Size of a chunk section, which random ticks are distributed over
+  private static final double SECTION_VOLUME = 16 * 16 * 16;
+
+  // Above this mean the Poisson distribution is approximated by a normal distribution
+  private static final double POISSON_NORMAL_THRESHOLD = 30.0D;
+
+  private static final BuddingCrystalBlock.BuddingQuality[] QUALITIES =
+      BuddingCrystalBlock.BuddingQuality.values();
+
+  // Swapped out as a whole on config reload, which happens off the server thread
+  private static volatile RateTable table = new RateTable(new float[0], new float[0], 0.0F);
+
+  private GrowthRates() {}
+
+  /**
+   * Gets the expected number of random ticks per block and game tick
+   *
+   * @param level The level to read the random tick speed from
+   * @return The expected random ticks per tick
+   */
+  public static double randomTicksPerTick(ServerLevel level) {
+    int randomTickSpeed = level.getGameRules().getInt(GameRules.RULE_RANDOMTICKING);
+    return randomTickSpeed / SECTION_VOLUME;
+  }
+
+  /**
+   * Resolves the growth and deterioration chances of every crystal type and quality into a flat
+   * lookup table. Called whenever the config is loaded or reloaded.
+   */
+  public static void resolve() {
+    float[] growth = new float[CrystalType.REGISTRY.size() * QUALITIES.length];
+    float[] deteriorate = new float[growth.length];
+    float maxGrowth = 0.0F;
+
+    for (CrystalType type : CrystalType.REGISTRY) {
+      for (BuddingCrystalBlock.BuddingQuality quality : QUALITIES) {
+        int slot = slot(type, quality);
+        growth[slot] =
+            Math.min(1.0F, type.definition.growthWeight() / Config.growthChance(type, quality));
+        // Flawless budding blocks never deteriorate
+        if (quality != BuddingCrystalBlock.BuddingQuality.FLAWLESS) {
+          float weight = type.definition.deteriorationWeight();
+          deteriorate[slot] = Math.min(1.0F, weight / Config.deteriorateChance(type, quality));
+        }
+        maxGrowth = Math.max(maxGrowth, growth[slot]);
+      }
+    }
+
+    table = new RateTable(growth, deteriorate, maxGrowth);
+  }
+
+  /**
+   * Gets the chance that a growth roll passes
+   *
+   * @param type The crystal type
+   * @param quality The budding quality
+   * @return The chance, between 0 and 1
+   */
+  public static float growthChance(CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return table.growth()[slot(type, quality)];
+  }
+
+  /**
+   * Gets the chance that a budding block deteriorates after growing
+   *
+   * @param type The crystal type
+   * @param quality The budding quality
+   * @return The chance, between 0 and 1
+   */
+  public static float deteriorateChance(
+      CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return table.deteriorate()[slot(type, quality)];
+  }
+
+  /**
+   * Gets the highest growth chance of all crystal types and qualities, for sampling growth of mixed
+   * blocks
+   *
+   * @return The chance, between 0 and 1
+   */
+  public static float maxGrowthChance() {
+    return table.maxGrowth();
+  }
+
+  private static int slot(CrystalType type, BuddingCrystalBlock.BuddingQuality quality) {
+    return type.id * QUALITIES.length + quality.ordinal();
+  }
+
+  /**
+   * Samples the number of failed rolls before the next successful one
+   *
+   * @param random The random source
+   * @param logFailure The natural log of the chance that a single roll fails
+   * @return The number of rolls to skip
+   */
+  public static long sampleSkip(RandomSource random, double logFailure) {
+    if (logFailure == Double.NEGATIVE_INFINITY) {
+      return 0; // Every roll succeeds
+    }
+    // Inverse transform of the geometric distribution; 1 - u is in (0, 1] so the log is finite
+    return (long) Math.floor(Math.log(1.0D - random.nextDouble()) / logFailure);
+  }
+
+  /**
+   * Samples the number of events of a Poisson process with the given mean
+   *
+   * @param random The random source
+   * @param mean The expected number of events
+   * @return The sampled number of events
+   */
+  public static long samplePoisson(RandomSource random, double mean) {
+    if (mean <= 0.0D) {
+      return 0;
+    }
+
+    if (mean > POISSON_NORMAL_THRESHOLD) {
+      return Math.max(0, Math.round(mean + Math.sqrt(mean) * random.nextGaussian()));
+    }
+
+    // Knuth's method, which takes about mean + 1 iterations
+    double limit = Math.exp(-mean);
+    double product = random.nextDouble();
+    long count = 0;
+    while (product > limit) {
+      product *= random.nextDouble();
+      count++;
+    }
+    return count;
+  }
+
+  /** Chances indexed by {@code type id * quality count + quality ordinal} */
+  private record RateTable(float[] growth, float[] deteriorate, float maxGrowth) {}
+}
@@ -0,0 +1,157 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+
+/**
+ * Drives budding crystal growth when {@link Config.GrowthMode#SCHEDULED} is enabled.
+ *
+ * <p>Every budding block receives on average {@code randomTickSpeed / 4096} random ticks per game
+ * tick, and each of those passes the growth roll with the chance from {@link GrowthRates}. Instead
+ * of rolling for every block, each chunk of the {@link BuddingCrystalIndex} keeps a geometric skip
+ * count of block-ticks until its next successful roll. A tick consumes one block-tick per indexed
+ * block, so the work per tick is one step per chunk plus one step per growth, independent of how
+ * many blocks never grow.
+ *
+ * <p>Deterioration is still rolled by {@link BuddingCrystalBlock#attemptGrowth} after a growth, so
+ * the expected growth and deterioration rates match the random tick mode.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GrowthScheduler {
+  // Schedules per dimension, only touched from the server thread
+  private static final Map<ResourceKey<Level>, LevelSchedule> SCHEDULES = new HashMap<>();
+
+  private GrowthScheduler() {}
+
+  @SubscribeEvent
+  public static void onLevelTick(LevelTickEvent.Post event) {
+    if (Config.growthMode != Config.GrowthMode.SCHEDULED
+        || !(event.getLevel() instanceof ServerLevel level)) {
+      return;
+    }
+
+    SCHEDULES.computeIfAbsent(level.dimension(), key -> new LevelSchedule()).tick(level);
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      SCHEDULES.remove(level.dimension());
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopped(ServerStoppedEvent event) {
+    SCHEDULES.clear();
+  }
+
+  /** Pending skip counts for the chunks of a single level */
+  private static final class LevelSchedule {
+    // Failed growth rolls left per chunk before its next success, -1 if not sampled yet
+    private final Long2LongOpenHashMap rollsUntilGrowth = new Long2LongOpenHashMap();
+    private double lastChance = -1.0D;
+
+    LevelSchedule() {
+      rollsUntilGrowth.defaultReturnValue(-1);
+    }
+
+    void tick(ServerLevel level) {
+      // Sample at the highest rate of all blocks and thin out slower ones when a block is picked
+      float maxGrowthChance = GrowthRates.maxGrowthChance();
+      double chance = Math.min(1.0D, GrowthRates.randomTicksPerTick(level) * maxGrowthChance);
+      if (chance <= 0.0D) {
+        return;
+      }
+
+      // Skip counts sampled for a different chance would skew the rate, so start over
+      if (chance != lastChance) {
+        lastChance = chance;
+        rollsUntilGrowth.clear();
+      }
+
+      double logFailure = Math.log1p(-chance);
+      RandomSource random = level.getRandom();
+      BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+
+      ObjectIterator<Long2ObjectMap.Entry<IndexedLongSet>> iterator =
+          Long2ObjectMaps.fastIterator(index.chunks());
+      while (iterator.hasNext()) {
+        Long2ObjectMap.Entry<IndexedLongSet> entry = iterator.next();
+        long chunkKey = entry.getLongKey();
+        IndexedLongSet chunk = entry.getValue();
+        if (!chunk.isEmpty() && level.shouldTickBlocksAt(chunkKey)) {
+          RandomSource chunkRandom = GrowthRandom.forChunk(level, chunkKey, random);
+          tickChunk(level, index, chunkKey, chunk, chunkRandom, logFailure, maxGrowthChance);
+        }
+      }
+    }
+
+    private void tickChunk(
+        ServerLevel level,
+        BuddingCrystalIndex index,
+        long chunkKey,
+        IndexedLongSet chunk,
+        RandomSource random,
+        double logFailure,
+        float maxGrowthChance) {
+      long skip = rollsUntilGrowth.get(chunkKey);
+      if (skip < 0) {
+        skip = GrowthRates.sampleSkip(random, logFailure);
+      }
+
+      // Each indexed block contributes one roll per tick
+      long rolls = chunk.size();
+      while (skip < rolls && !chunk.isEmpty()) {
+        rolls -= skip + 1;
+        growRandomBlock(level, index, chunkKey, chunk, random, maxGrowthChance);
+        skip = GrowthRates.sampleSkip(random, logFailure);
+      }
+      rollsUntilGrowth.put(chunkKey, Math.max(0, skip - rolls));
+    }
+
+    private void growRandomBlock(
+        ServerLevel level,
+        BuddingCrystalIndex index,
+        long chunkKey,
+        IndexedLongSet chunk,
+        RandomSource random,
+        float maxGrowthChance) {
+      long entry = chunk.get(random.nextInt(chunk.size()));
+      BlockPos pos = BuddingCrystalIndex.unpackPos(chunkKey, entry);
+      BlockState state = level.getBlockState(pos);
+
+      if (state.getBlock() instanceof BuddingCrystalBlock buddingBlock) {
+        float growthChance =
+            GrowthRates.growthChance(buddingBlock.crystalType, buddingBlock.quality);
+        if (random.nextFloat() * maxGrowthChance < growthChance) {
+          GrowthMetrics.increment(buddingBlock.crystalType, GrowthMetrics.Metric.ROLLS_PASSED);
+          long start = GrowthMetrics.start();
+          // Acceleration adds attempts instead of raising the thinning bound for every block
+          GrowthBudget.growAccelerated(level, pos, buddingBlock, random);
+          GrowthMetrics.recordTime(buddingBlock.crystalType, start);
+        }
+      } else {
+        // The block was replaced without notifying us (e.g. by a structure), forget it
+        index.removeEntry(chunkKey, entry);
+      }
+    }
+  }
+}
@@ -0,0 +1,200 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectLinkedOpenHashMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.level.BlockGetter;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.LevelWriter;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.entity.BlockEntity;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.material.FluidState;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Fast-forwards crystal growth in an area, for {@code /morecrystals simulate}.
+ *
+ * <p>Instead of rolling every random tick, each indexed budding block jumps straight from one
+ * passed growth roll to the next by sampling how many random ticks the wait takes, and stops once
+ * its share of random ticks is used up or none of its faces can grow anymore. The cost therefore
+ * depends on how much grows, not on how many ticks are simulated. Growth itself runs through
+ * {@link BuddingCrystalBlock#attemptGrowth}, so buds and deterioration follow the same rules as
+ * regular growth.
+ *
+ * <p>All growth is first written to an in-memory overlay of the level. Budding blocks are
+ * simulated one after another, so a bud shared by two budding blocks sees all growth of the first
+ * before the second. Once every block is done, each position that ended up different is written
+ * to the level once.
+ */
+public final class GrowthSimulation {
+  private GrowthSimulation() {}
+
+  /**
+   * Simulates growth of all budding blocks in loaded chunks around a position
+   *
+   * @param level The level to simulate in
+   * @param center The position to center the square of chunks on
+   * @param radius The radius of the square, in chunks
+   * @param ticks The number of game ticks to simulate
+   * @return The result of the simulation
+   */
+  public static Result simulate(ServerLevel level, BlockPos center, int radius, long ticks) {
+    BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+    AcceleratorIndex accelerators = AcceleratorIndex.get(level);
+    double randomTicks = GrowthRates.randomTicksPerTick(level) * ticks;
+    SimulatedLevel simulated = new SimulatedLevel(level);
+    ChunkPos centerChunk = new ChunkPos(center);
+
+    int buddingBlocks = 0;
+    for (int x = centerChunk.x - radius; x <= centerChunk.x + radius; x++) {
+      for (int z = centerChunk.z - radius; z <= centerChunk.z + radius; z++) {
+        long chunkKey = ChunkPos.asLong(x, z);
+        IndexedLongSet chunk = index.chunk(chunkKey);
+        if (chunk == null || !level.hasChunk(x, z)) {
+          continue;
+        }
+
+        // The overlay takes every write, so the index doesn't change while iterating
+        for (int i = 0; i < chunk.size(); i++) {
+          BlockPos pos = BuddingCrystalIndex.unpackPos(chunkKey, chunk.get(i));
+          RandomSource random = GrowthRandom.at(level, pos, level.getRandom());
+          simulateBlock(simulated, pos, randomTicks * accelerators.multiplier(pos), random);
+          buddingBlocks++;
+        }
+      }
+    }
+
+    return new Result(buddingBlocks, simulated.apply(level));
+  }
+
+  /**
+   * Simulates the growth of one budding block in the overlay
+   *
+   * @param simulated The overlay to grow in
+   * @param pos The position of the budding block
+   * @param randomTicks The number of random ticks the block receives
+   * @param random The random source to roll with
+   */
+  private static void simulateBlock(
+      SimulatedLevel simulated, BlockPos pos, double randomTicks, RandomSource random) {
+    double remaining = randomTicks;
+    while (true) {
+      // Deterioration changes the chance, or ends growth entirely
+      BlockState state = simulated.getBlockState(pos);
+      if (!(state.getBlock() instanceof BuddingCrystalBlock buddingBlock)
+          || !buddingBlock.canGrow(simulated, pos)) {
+        return;
+      }
+      float growthChance =
+          GrowthRates.growthChance(buddingBlock.crystalType, buddingBlock.quality);
+      if (growthChance <= 0.0F) {
+        return;
+      }
+
+      remaining -= GrowthRates.sampleSkip(random, Math.log1p(-growthChance)) + 1;
+      if (remaining < 0.0D) {
+        return;
+      }
+      buddingBlock.attemptGrowth(simulated, pos, random);
+    }
+  }
+
+  /**
+   * The outcome of a simulation
+   *
+   * @param buddingBlocks The number of budding blocks that were simulated
+   * @param changedBlocks The number of positions written to the level
+   */
+  public record Result(int buddingBlocks, int changedBlocks) {}
+
+  /** Collects growth writes in memory on top of a level's blocks */
+  private static final class SimulatedLevel implements BlockGetter, LevelWriter {
+    private final ServerLevel level;
+    // Insertion ordered, so positions are written to the level in the order they first changed
+    private final Long2ObjectLinkedOpenHashMap<BlockState> writes =
+        new Long2ObjectLinkedOpenHashMap<>();
+
+    SimulatedLevel(ServerLevel level) {
+      this.level = level;
+    }
+
+    /**
+     * Writes every position whose simulated state differs from the level
+     *
+     * @param level The level to write to
+     * @return The number of positions written
+     */
+    int apply(ServerLevel level) {
+      int changed = 0;
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      for (Long2ObjectMap.Entry<BlockState> write : Long2ObjectMaps.fastIterable(writes)) {
+        pos.set(write.getLongKey());
+        BlockState state = write.getValue();
+        if (level.getBlockState(pos) == state) {
+          continue;
+        }
+
+        BlockPos immutablePos = pos.immutable();
+        GrowthUpdates.setBlock(level, immutablePos, state, true);
+        changed++;
+        if (state.getBlock() instanceof CrystalBudBlock bud
+            && bud.getGrowthStage(state) == CrystalBudBlock.GrowthStage.CLUSTER) {
+          HarvestQueue.clusterGrown(level, immutablePos, state);
+        }
+      }
+      return changed;
+    }
+
+    @Override
+    public BlockState getBlockState(BlockPos pos) {
+      BlockState state = writes.get(pos.asLong());
+      return state != null ? state : level.getBlockState(pos);
+    }
+
+    @Override
+    public FluidState getFluidState(BlockPos pos) {
+      return getBlockState(pos).getFluidState();
+    }
+
+    // Growth never reads block entities
+    @Nullable
+    @Override
+    public BlockEntity getBlockEntity(BlockPos pos) {
+      return null;
+    }
+
+    @Override
+    public int getHeight() {
+      return level.getHeight();
+    }
+
+    @Override
+    public int getMinBuildHeight() {
+      return level.getMinBuildHeight();
+    }
+
+    @Override
+    public boolean setBlock(BlockPos pos, BlockState state, int flags, int recursionLeft) {
+      writes.put(pos.asLong(), state);
+      return true;
+    }
+
+    @Override
+    public boolean removeBlock(BlockPos pos, boolean isMoving) {
+      return setBlock(pos, Blocks.AIR.defaultBlockState(), 3);
+    }
+
+    @Override
+    public boolean destroyBlock(
+        BlockPos pos, boolean dropBlock, @Nullable Entity entity, int recursionLeft) {
+      return removeBlock(pos, false);
+    }
+  }
+}
@@ -0,0 +1,140 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.objects.Reference2ReferenceOpenHashMap;
+import java.util.ArrayList;
+import java.util.List;
+import net.minecraft.core.Direction;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Precomputed growth transitions for a single crystal type.
+ *
+ * <p>The table is resolved once after the block registry is frozen, so the growth path never has
+ * to build stage lists or resolve deferred blocks. Every lookup is a single array load or identity
+ * hash lookup and does not allocate.
+ */
+public final class GrowthTable {
+  private static final Direction[] DIRECTIONS = Direction.values();
+
+  // Small bud state to place into empty space, indexed by Direction ordinal
+  private final BlockState[] newBudStates;
+
+  // Maps every non-final bud state to the next stage, with FACING and WATERLOGGED carried over
+  private final Reference2ReferenceOpenHashMap<BlockState, BlockState> nextBudStates;
+
+  // Deteriorated budding state, indexed by BuddingQuality ordinal (null if it never deteriorates)
+  private final BlockState[] deterioratedStates;
+
+  /**
+   * Creates a growth table from already resolved blocks
+   *
+   * @param stageStates The bud state of each growth stage in order of growth progression
+   * @param budBlocks Every bud block whose states can grow, including blocks that are only kept
+   *     to migrate old worlds
+   * @param deteriorationTargets The block each quality deteriorates into, indexed by quality
+   *     ordinal (null entries never deteriorate)
+   */
+  public GrowthTable(
+      BlockState[] stageStates, List<CrystalBudBlock> budBlocks, Block[] deteriorationTargets) {
+    this.newBudStates = new BlockState[DIRECTIONS.length];
+    for (Direction direction : DIRECTIONS) {
+      newBudStates[direction.ordinal()] =
+          stageStates[0].setValue(CrystalBudBlock.FACING, direction);
+    }
+
+    // Every state advances to the stage state of the next stage, which also moves buds of blocks
+    // that are only kept for migration over to the current bud block
+    this.nextBudStates = new Reference2ReferenceOpenHashMap<>();
+    for (CrystalBudBlock budBlock : budBlocks) {
+      for (BlockState state : budBlock.getStateDefinition().getPossibleStates()) {
+        int stage = budBlock.getGrowthStage(state).ordinal();
+        if (stage + 1 >= stageStates.length) {
+          continue;
+        }
+        BlockState next =
+            stageStates[stage + 1]
+                .setValue(CrystalBudBlock.FACING, state.getValue(CrystalBudBlock.FACING))
+                .setValue(CrystalBudBlock.WATERLOGGED, state.getValue(CrystalBudBlock.WATERLOGGED));
+        nextBudStates.put(state, next);
+      }
+    }
+    nextBudStates.trim();
+
+    this.deterioratedStates = new BlockState[deteriorationTargets.length];
+    for (int i = 0; i < deteriorationTargets.length; i++) {
+      Block target = deteriorationTargets[i];
+      deterioratedStates[i] = target == null ? null : target.defaultBlockState();
+    }
+  }
+
+  /**
+   * Resolves the growth table for a crystal type. Must only be called once its blocks are
+   * registered.
+   *
+   * @param type The crystal type
+   * @return The resolved growth table
+   */
+  public static GrowthTable resolve(CrystalType type) {
+    CrystalBudBlock.GrowthStage[] stages = CrystalBudBlock.GrowthStage.values();
+    BlockState[] stageStates = new BlockState[stages.length];
+    List<CrystalBudBlock> budBlocks = new ArrayList<>();
+    for (CrystalBudBlock.GrowthStage stage : stages) {
+      stageStates[stage.ordinal()] = type.getBudState(stage);
+      CrystalBudBlock budBlock = (CrystalBudBlock) type.getBudBlock(stage).get();
+      if (!budBlocks.contains(budBlock)) {
+        budBlocks.add(budBlock);
+      }
+    }
+    for (DeferredBlock<Block> legacyBudBlock : type.legacyBudBlocks) {
+      budBlocks.add((CrystalBudBlock) legacyBudBlock.get());
+    }
+
+    Block[] deteriorationTargets = new Block[BuddingCrystalBlock.BuddingQuality.values().length];
+    deteriorationTargets[BuddingCrystalBlock.BuddingQuality.FLAWED.ordinal()] =
+        type.chippedBuddingBlock.get();
+    deteriorationTargets[BuddingCrystalBlock.BuddingQuality.CHIPPED.ordinal()] =
+        type.damagedBuddingBlock.get();
+    deteriorationTargets[BuddingCrystalBlock.BuddingQuality.DAMAGED.ordinal()] =
+        type.crystalBlock.get();
+
+    return new GrowthTable(stageStates, budBlocks, deteriorationTargets);
+  }
+
+  /**
+   * Gets the small bud state to place when growing into empty space
+   *
+   * @param direction The direction of growth
+   * @return The small bud state facing the growth direction
+   */
+  public BlockState newBud(Direction direction) {
+    return newBudStates[direction.ordinal()];
+  }
+
+  /**
+   * Gets the next growth stage for an existing bud
+   *
+   * @param budState The current state at the growth position
+   * @return The next stage state, or null if the state is not a growable bud of this type
+   */
+  @Nullable
+  public BlockState nextStage(BlockState budState) {
+    return nextBudStates.get(budState);
+  }
+
+  /**
+   * Gets the state a budding block of the given quality deteriorates into
+   *
+   * @param quality The current quality
+   * @return The deteriorated state, or null if the quality never deteriorates
+   */
+  @Nullable
+  public BlockState deteriorated(BuddingCrystalBlock.BuddingQuality quality) {
+    return deterioratedStates[quality.ordinal()];
+  }
+}
@@ -0,0 +1,252 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMaps;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ObjectIterator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.LongPredicate;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.LevelWriter;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.lighting.LevelLightEngine;
+import net.minecraft.world.level.lighting.LightEngine;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+
+/**
+ * Writes crystal growth changes to the level using the configured update strategy.
+ *
+ * <p>With {@link Config.UpdateStrategy#DEFERRED_NEIGHBOR}, the block is synced to clients right
+ * away and neighbour updates are collected per level, then sent once per position at the end of
+ * the tick. Outside of {@link Config.UpdateStrategy#FULL}, growth that only changes a bud's size
+ * never sends neighbour shape updates, since the bud's attachment and faces stay the same.
+ *
+ * <p>With a {@link Config#lightUpdateInterval} above 0, buds that only grow in size are written
+ * straight into their chunk section so the level doesn't queue a light check for every change.
+ * Their positions are collected per level instead, and the light engine is asked to check each of
+ * them once every interval, no matter how often the bud grew in between. Light ends up the same,
+ * it just follows growth by up to the interval. Light is saved with the chunk, so checks are only
+ * deferred in chunks that tick blocks, and a chunk's checks are queued as soon as it stops ticking,
+ * well before it is unloaded and saved. Growth outside of ticking chunks, like offline catch-up,
+ * always uses regular block changes.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GrowthUpdates {
+  // Sync to clients but leave neighbour shapes alone
+  private static final int CLIENT_ONLY_FLAGS = Block.UPDATE_CLIENTS | Block.UPDATE_KNOWN_SHAPE;
+
+  // Pending deferred updates per dimension, only touched from the server thread
+  private static final Map<ResourceKey<Level>, PendingUpdates> PENDING = new HashMap<>();
+
+  private GrowthUpdates() {}
+
+  /**
+   * Writes a growth change to the level
+   *
+   * @param level The level to write to
+   * @param pos The position that changed
+   * @param state The new block state
+   * @param shapeChanged Whether the change can affect neighbours' shapes (a new bud or a different
+   *     block), as opposed to a bud only growing in size
+   */
+  public static void setBlock(
+      LevelWriter level, BlockPos pos, BlockState state, boolean shapeChanged) {
+    if (!shapeChanged
+        && Config.lightUpdateInterval > 0
+        && level instanceof ServerLevel serverLevel
+        && serverLevel.shouldTickBlocksAt(ChunkPos.asLong(pos))) {
+      setBlockDeferringLight(serverLevel, pos, state);
+      return;
+    }
+
+    switch (Config.updateStrategy) {
+      case FULL -> level.setBlock(pos, state, Block.UPDATE_ALL);
+      case CLIENT_ONLY -> level.setBlock(pos, state, CLIENT_ONLY_FLAGS);
+      case DEFERRED_NEIGHBOR -> {
+        if (level.setBlock(pos, state, CLIENT_ONLY_FLAGS)
+            && level instanceof ServerLevel serverLevel) {
+          pending(serverLevel).add(pos, shapeChanged);
+        }
+      }
+    }
+  }
+
+  /**
+   * Writes a bud size change without the light check a regular block change queues, and queues
+   * the position for the next coalesced light pass instead
+   */
+  private static void setBlockDeferringLight(ServerLevel level, BlockPos pos, BlockState state) {
+    LevelChunk chunk = level.getChunkAt(pos);
+    LevelChunkSection section = chunk.getSection(chunk.getSectionIndex(pos.getY()));
+    BlockState oldState =
+        section.setBlockState(
+            SectionPos.sectionRelative(pos.getX()),
+            SectionPos.sectionRelative(pos.getY()),
+            SectionPos.sectionRelative(pos.getZ()),
+            state);
+    if (oldState == state) {
+      return;
+    }
+    chunk.setUnsaved(true);
+
+    // Same client sync and neighbour updates as the configured strategy would send
+    PendingUpdates pending = pending(level);
+    if (Config.updateStrategy == Config.UpdateStrategy.FULL) {
+      level.markAndNotifyBlock(pos, chunk, oldState, state, Block.UPDATE_ALL, Block.UPDATE_LIMIT);
+    } else {
+      level.markAndNotifyBlock(pos, chunk, oldState, state, CLIENT_ONLY_FLAGS, Block.UPDATE_LIMIT);
+      if (Config.updateStrategy == Config.UpdateStrategy.DEFERRED_NEIGHBOR) {
+        pending.add(pos, false);
+      }
+    }
+
+    if (LightEngine.hasDifferentLightProperties(level, pos, oldState, state)) {
+      pending.addLightCheck(pos);
+    }
+  }
+
+  private static PendingUpdates pending(ServerLevel level) {
+    return PENDING.computeIfAbsent(level.dimension(), key -> new PendingUpdates());
+  }
+
+  @SubscribeEvent
+  public static void onLevelTick(LevelTickEvent.Post event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      PendingUpdates pending = PENDING.get(level.dimension());
+      if (pending != null) {
+        pending.flush(level);
+        if (level.getGameTime() % Math.max(1, Config.lightUpdateInterval) == 0) {
+          pending.flushLight(level, chunkKey -> true);
+        } else {
+          // Leaves enough time for the checks to run before the chunk is saved on unload
+          pending.flushLight(level, chunkKey -> !level.shouldTickBlocksAt(chunkKey));
+        }
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void onChunkUnload(ChunkEvent.Unload event) {
+    // Checks are normally queued once the chunk stops ticking, this only catches stragglers so
+    // the positions don't outlive the chunk
+    if (event.getLevel() instanceof ServerLevel level) {
+      PendingUpdates pending = PENDING.get(level.dimension());
+      if (pending != null) {
+        pending.flushLight(level, event.getChunk().getPos().toLong());
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      PENDING.remove(level.dimension());
+    }
+  }
+
+  /** Positions waiting for deferred neighbour updates and light checks in a single level */
+  private static final class PendingUpdates {
+    private final LongOpenHashSet neighborUpdates = new LongOpenHashSet();
+    private final LongOpenHashSet shapeUpdates = new LongOpenHashSet();
+    // Positions by chunk, so chunks that stopped ticking are found without visiting every position
+    private final Long2ObjectOpenHashMap<LongOpenHashSet> lightChecks =
+        new Long2ObjectOpenHashMap<>();
+
+    void add(BlockPos pos, boolean shapeChanged) {
+      neighborUpdates.add(pos.asLong());
+      if (shapeChanged) {
+        shapeUpdates.add(pos.asLong());
+      }
+    }
+
+    void addLightCheck(BlockPos pos) {
+      lightChecks
+          .computeIfAbsent(ChunkPos.asLong(pos), chunkKey -> new LongOpenHashSet())
+          .add(pos.asLong());
+    }
+
+    void flush(ServerLevel level) {
+      if (neighborUpdates.isEmpty()) {
+        return;
+      }
+
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      for (LongIterator it = neighborUpdates.iterator(); it.hasNext(); ) {
+        long packedPos = it.nextLong();
+        pos.set(packedPos);
+        // Positions can change more than once per tick, so notify about the final state only
+        BlockState state = level.getBlockState(pos);
+        BlockPos immutablePos = pos.immutable();
+        if (shapeUpdates.contains(packedPos)) {
+          state.updateNeighbourShapes(level, immutablePos, Block.UPDATE_ALL);
+        }
+        level.updateNeighborsAt(immutablePos, state.getBlock());
+      }
+
+      neighborUpdates.clear();
+      shapeUpdates.clear();
+    }
+
+    /**
+     * Queues the pending light checks of some chunks with the light engine
+     *
+     * @param level The level the checks belong to
+     * @param chunks Tests the chunk position as a long, true to queue the chunk's checks
+     */
+    void flushLight(ServerLevel level, LongPredicate chunks) {
+      if (lightChecks.isEmpty()) {
+        return;
+      }
+
+      // Queued together, the light engine propagates all of them in the same batch
+      LevelLightEngine lightEngine = level.getChunkSource().getLightEngine();
+      for (ObjectIterator<Long2ObjectMap.Entry<LongOpenHashSet>> it =
+              Long2ObjectMaps.fastIterator(lightChecks);
+          it.hasNext(); ) {
+        Long2ObjectMap.Entry<LongOpenHashSet> chunk = it.next();
+        if (chunks.test(chunk.getLongKey())) {
+          checkLight(lightEngine, chunk.getValue());
+          it.remove();
+        }
+      }
+    }
+
+    /**
+     * Queues the pending light checks of a single chunk with the light engine
+     *
+     * @param level The level the checks belong to
+     * @param chunkKey The chunk position as a long
+     */
+    void flushLight(ServerLevel level, long chunkKey) {
+      LongOpenHashSet positions = lightChecks.remove(chunkKey);
+      if (positions != null) {
+        checkLight(level.getChunkSource().getLightEngine(), positions);
+      }
+    }
+
+    private static void checkLight(LevelLightEngine lightEngine, LongOpenHashSet positions) {
+      // The light engine copies the position, so one mutable position does for all of them
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      for (LongIterator it = positions.iterator(); it.hasNext(); ) {
+        lightEngine.checkBlock(pos.set(it.nextLong()));
+      }
+    }
+  }
+}
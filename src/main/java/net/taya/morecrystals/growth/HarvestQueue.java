@@ -0,0 +1,131 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Consumer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.common.NeoForge;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppedEvent;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+
+/**
+ * Per-chunk queues of crystal clusters that are ready to harvest, so automation doesn't have to
+ * poll the faces of budding blocks.
+ *
+ * <p>Whenever growth turns a bud into a cluster, its position is appended to the queue of its
+ * chunk and a {@link ClusterGrownEvent} is fired. Machines drain the queue of the chunks they
+ * cover in batches; positions whose cluster was broken or replaced in the meantime are skipped
+ * while draining, so nothing has to be removed when a cluster is harvested some other way.
+ *
+ * <p>The queues only live in memory. They are dropped when their chunk unloads, and clusters from
+ * world generation or from before a restart are never queued, so machines should scan their area
+ * once when they are placed or loaded.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class HarvestQueue {
+  // Ready clusters per dimension and chunk, in the order they grew; only touched from the server
+  private static final Map<ResourceKey<Level>, Long2ObjectOpenHashMap<LongLinkedOpenHashSet>>
+      QUEUES = new HashMap<>();
+
+  private HarvestQueue() {}
+
+  /**
+   * Queues a cluster that just finished growing and notifies listeners
+   *
+   * @param level The level the cluster grew in
+   * @param pos The position of the cluster
+   * @param state The cluster's block state
+   */
+  public static void clusterGrown(ServerLevel level, BlockPos pos, BlockState state) {
+    QUEUES
+        .computeIfAbsent(level.dimension(), key -> new Long2ObjectOpenHashMap<>())
+        .computeIfAbsent(ChunkPos.asLong(pos), key -> new LongLinkedOpenHashSet())
+        .add(pos.asLong());
+    NeoForge.EVENT_BUS.post(new ClusterGrownEvent(level, pos, state));
+  }
+
+  /**
+   * Takes ready clusters from the queue of a chunk, oldest first
+   *
+   * @param level The level to take clusters from
+   * @param chunk The chunk to take clusters from
+   * @param max The maximum number of clusters to take
+   * @param consumer Receives the position of every cluster that is still there
+   * @return The number of clusters passed to the consumer
+   */
+  public static int drain(ServerLevel level, ChunkPos chunk, int max, Consumer<BlockPos> consumer) {
+    Long2ObjectOpenHashMap<LongLinkedOpenHashSet> chunks = QUEUES.get(level.dimension());
+    LongLinkedOpenHashSet queue = chunks == null ? null : chunks.get(chunk.toLong());
+    if (queue == null) {
+      return 0;
+    }
+
+    int drained = 0;
+    BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+    while (drained < max && !queue.isEmpty()) {
+      pos.set(queue.removeFirstLong());
+      if (isCluster(level.getBlockState(pos))) {
+        consumer.accept(pos.immutable());
+        drained++;
+      }
+    }
+
+    if (queue.isEmpty()) {
+      chunks.remove(chunk.toLong());
+    }
+    return drained;
+  }
+
+  /**
+   * Gets the number of queued positions of a chunk. This can include clusters that were already
+   * removed, which are only skipped while draining.
+   *
+   * @param level The level to check
+   * @param chunk The chunk to check
+   * @return The number of queued positions
+   */
+  public static int queued(ServerLevel level, ChunkPos chunk) {
+    Long2ObjectOpenHashMap<LongLinkedOpenHashSet> chunks = QUEUES.get(level.dimension());
+    LongLinkedOpenHashSet queue = chunks == null ? null : chunks.get(chunk.toLong());
+    return queue == null ? 0 : queue.size();
+  }
+
+  @SubscribeEvent
+  public static void onChunkUnload(ChunkEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      Long2ObjectOpenHashMap<LongLinkedOpenHashSet> chunks = QUEUES.get(level.dimension());
+      if (chunks != null) {
+        chunks.remove(event.getChunk().getPos().toLong());
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      QUEUES.remove(level.dimension());
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopped(ServerStoppedEvent event) {
+    QUEUES.clear();
+  }
+
+  private static boolean isCluster(BlockState state) {
+    return state.getBlock() instanceof CrystalBudBlock bud
+        && bud.getGrowthStage(state) == CrystalBudBlock.GrowthStage.CLUSTER;
+  }
+}
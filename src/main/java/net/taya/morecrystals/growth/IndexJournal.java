@@ -0,0 +1,187 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2LongMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.LongCollection;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Append-only binary file holding the entries of a {@link BuddingCrystalIndex}, so large indexes
+ * don't have to be written out in full as NBT on every save.
+ *
+ * <p>The file starts with a header listing the crystal type names the packed type ids refer to,
+ * followed by chunk records of {@code chunk key, last processed time, entry count, entries...}.
+ * Saving appends one record per chunk that changed since the last save, and the last record of a
+ * chunk replaces all earlier ones when the file is read back. Once the file has grown to more than
+ * twice the size of its live records, it is rewritten with one record per chunk.
+ *
+ * <p>A record cut short by a crash is ignored when reading, which loses at most the last save.
+ */
+final class IndexJournal {
+  private static final int MAGIC = 0x4D434A31; // "MCJ1"
+  private static final int HEADER_RECORD_BYTES = Long.BYTES * 2 + Integer.BYTES;
+  // Never compact files smaller than this, rewriting them costs more than it saves
+  private static final long MIN_COMPACT_BYTES = 1 << 20;
+
+  private final Path path;
+  private long fileBytes;
+
+  IndexJournal(Path path) {
+    this.path = path;
+  }
+
+  boolean exists() {
+    return Files.exists(path);
+  }
+
+  /**
+   * Reads the journal, keeping the last record of each chunk
+   *
+   * @param entries Receives the entries of each chunk, with type ids as saved
+   * @param lastProcessed Receives the last processed time of each chunk that has one
+   * @return The crystal type names the saved type ids refer to
+   * @throws IOException If the file can't be read or has no valid header
+   */
+  List<String> read(Long2ObjectMap<long[]> entries, Long2LongMap lastProcessed)
+      throws IOException {
+    // Read onto the heap, a mapping would keep the file locked against the next rewrite on Windows
+    byte[] bytes = Files.readAllBytes(path);
+    ByteBuffer buffer = ByteBuffer.wrap(bytes);
+    if (buffer.remaining() < Integer.BYTES * 2 || buffer.getInt() != MAGIC) {
+      throw new IOException("Not a crystal index journal: " + path);
+    }
+
+    List<String> types = new ArrayList<>();
+    for (int count = buffer.getInt(); count > 0; count--) {
+      byte[] name = new byte[buffer.getShort()];
+      buffer.get(name);
+      types.add(new String(name, StandardCharsets.UTF_8));
+    }
+
+    while (buffer.remaining() >= HEADER_RECORD_BYTES) {
+      long chunkKey = buffer.getLong();
+      long processed = buffer.getLong();
+      int count = buffer.getInt();
+      if (count < 0 || buffer.remaining() < (long) count * Long.BYTES) {
+        break; // Cut short by a crash
+      }
+
+      long[] chunkEntries = new long[count];
+      buffer.asLongBuffer().get(chunkEntries);
+      buffer.position(buffer.position() + count * Long.BYTES);
+      entries.put(chunkKey, chunkEntries);
+      if (processed < 0) {
+        lastProcessed.remove(chunkKey);
+      } else {
+        lastProcessed.put(chunkKey, processed);
+      }
+    }
+    fileBytes = bytes.length;
+    return types;
+  }
+
+  /**
+   * Writes the changed chunks of an index, rewriting the whole file if it got too large
+   *
+   * @param index The index to write
+   * @param types The crystal type names of the current type ids
+   * @param changedChunks The chunks that changed since the last write
+   * @param rewrite Whether to rewrite the whole file regardless of its size
+   * @throws IOException If writing fails
+   */
+  void write(
+      BuddingCrystalIndex index, List<String> types, LongCollection changedChunks, boolean rewrite)
+      throws IOException {
+    long liveBytes = recordBytes(index, index.chunks().keySet());
+    if (rewrite || !exists() || fileBytes > Math.max(MIN_COMPACT_BYTES, liveBytes * 2)) {
+      rewrite(index, types);
+    } else if (!changedChunks.isEmpty()) {
+      try (FileChannel channel =
+          FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+        fileBytes += writeRecords(channel, index, changedChunks);
+        channel.force(false);
+      }
+    }
+  }
+
+  void delete() throws IOException {
+    Files.deleteIfExists(path);
+    fileBytes = 0;
+  }
+
+  // Writes a fresh file next to the journal and swaps it in, so a crash keeps the old one
+  private void rewrite(BuddingCrystalIndex index, List<String> types) throws IOException {
+    Files.createDirectories(path.getParent());
+    Path temp = path.resolveSibling(path.getFileName() + ".tmp");
+    try (FileChannel channel =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING)) {
+      List<byte[]> names = new ArrayList<>(types.size());
+      int headerBytes = Integer.BYTES * 2;
+      for (String type : types) {
+        byte[] name = type.getBytes(StandardCharsets.UTF_8);
+        names.add(name);
+        headerBytes += Short.BYTES + name.length;
+      }
+
+      ByteBuffer header = ByteBuffer.allocate(headerBytes);
+      header.putInt(MAGIC).putInt(names.size());
+      for (byte[] name : names) {
+        header.putShort((short) name.length).put(name);
+      }
+      header.flip();
+      writeFully(channel, header);
+
+      fileBytes = headerBytes + writeRecords(channel, index, index.chunks().keySet());
+      channel.force(false);
+    }
+    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static long writeRecords(
+      FileChannel channel, BuddingCrystalIndex index, LongCollection chunkKeys)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate((int) recordBytes(index, chunkKeys));
+    for (LongIterator it = chunkKeys.iterator(); it.hasNext(); ) {
+      long chunkKey = it.nextLong();
+      IndexedLongSet chunk = index.chunk(chunkKey);
+      int count = chunk == null ? 0 : chunk.size();
+      buffer.putLong(chunkKey).putLong(index.lastProcessed(chunkKey)).putInt(count);
+      for (int i = 0; i < count; i++) {
+        buffer.putLong(chunk.get(i));
+      }
+    }
+    buffer.flip();
+    int written = buffer.remaining();
+    writeFully(channel, buffer);
+    return written;
+  }
+
+  private static long recordBytes(BuddingCrystalIndex index, LongCollection chunkKeys) {
+    long bytes = 0;
+    for (LongIterator it = chunkKeys.iterator(); it.hasNext(); ) {
+      IndexedLongSet chunk = index.chunk(it.nextLong());
+      bytes += HEADER_RECORD_BYTES + (chunk == null ? 0L : (long) chunk.size() * Long.BYTES);
+    }
+    return bytes;
+  }
+
+  private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+}
@@ -0,0 +1,91 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * A set of longs that also supports constant-time access by index, so a uniformly random element
+ * can be picked without iterating. Removal swaps the last element into the freed slot.
+ */
+public final class IndexedLongSet {
+  private final LongArrayList values = new LongArrayList();
+  private final Long2IntOpenHashMap indices = new Long2IntOpenHashMap();
+  // Copy of the values handed out by snapshot(), null once the set changed
+  private long[] snapshot;
+
+  public IndexedLongSet() {
+    indices.defaultReturnValue(-1);
+  }
+
+  /**
+   * Adds a value to the set
+   *
+   * @param value The value to add
+   * @return true if the value was not present yet
+   */
+  public boolean add(long value) {
+    if (indices.containsKey(value)) {
+      return false;
+    }
+    indices.put(value, values.size());
+    values.add(value);
+    snapshot = null;
+    return true;
+  }
+
+  /**
+   * Removes a value from the set
+   *
+   * @param value The value to remove
+   * @return true if the value was present
+   */
+  public boolean remove(long value) {
+    int index = indices.remove(value);
+    if (index < 0) {
+      return false;
+    }
+
+    snapshot = null;
+    long last = values.removeLong(values.size() - 1);
+    if (index < values.size()) {
+      values.set(index, last);
+      indices.put(last, index);
+    }
+    return true;
+  }
+
+  public boolean contains(long value) {
+    return indices.containsKey(value);
+  }
+
+  /**
+   * Gets the value stored at an index. Indices change when values are removed.
+   *
+   * @param index The index, between 0 and {@link #size()}
+   * @return The value at the index
+   */
+  public long get(int index) {
+    return values.getLong(index);
+  }
+
+  /**
+   * Gets a copy of the values, in index order. The copy is shared until the set changes, so it
+   * must not be modified, but it can be read from any thread.
+   *
+   * @return The values
+   */
+  public long[] snapshot() {
+    if (snapshot == null) {
+      snapshot = values.toLongArray();
+    }
+    return snapshot;
+  }
+
+  public int size() {
+    return values.size();
+  }
+
+  public boolean isEmpty() {
+    return values.isEmpty();
+  }
+}
@@ -0,0 +1,163 @@
+package net.taya.morecrystals.growth;
+
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import java.util.HashMap;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.level.block.state.BlockState;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.ChunkEvent;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+
+/**
+ * Applies the growth budding crystals missed while their chunk was unloaded.
+ *
+ * <p>When a chunk with indexed budding blocks unloads, the current game time is stored in the
+ * {@link BuddingCrystalIndex}. Once the chunk and its horizontal neighbours are loaded again, the
+ * number of passed growth rolls for the elapsed time is sampled per block from a Poisson
+ * distribution and replayed in one pass. Replaying stops as soon as no face of a block can grow any
+ * further, so even very long absences only cost a few dozen attempts per block.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class OfflineGrowth {
+  // Chunks that were loaded but not caught up yet, per dimension; only touched from the server
+  private static final Map<ResourceKey<Level>, LongOpenHashSet> PENDING = new HashMap<>();
+
+  private OfflineGrowth() {}
+
+  @SubscribeEvent
+  public static void onChunkLoad(ChunkEvent.Load event) {
+    if (!Config.offlineGrowth || !(event.getLevel() instanceof ServerLevel level)) {
+      return;
+    }
+
+    // Neighbouring chunks may not be loaded yet, so catch up on a later tick
+    long chunkKey = event.getChunk().getPos().toLong();
+    if (BuddingCrystalIndex.get(level).lastProcessed(chunkKey) >= 0) {
+      PENDING.computeIfAbsent(level.dimension(), key -> new LongOpenHashSet()).add(chunkKey);
+    }
+  }
+
+  @SubscribeEvent
+  public static void onChunkUnload(ChunkEvent.Unload event) {
+    if (!Config.offlineGrowth || !(event.getLevel() instanceof ServerLevel level)) {
+      return;
+    }
+
+    long chunkKey = event.getChunk().getPos().toLong();
+    LongOpenHashSet pending = PENDING.get(level.dimension());
+    if (pending != null && pending.remove(chunkKey)) {
+      return; // Never caught up, so keep the original time
+    }
+
+    BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+    IndexedLongSet chunk = index.chunk(chunkKey);
+    if (chunk != null && !chunk.isEmpty()) {
+      index.setLastProcessed(chunkKey, level.getGameTime());
+    }
+  }
+
+  @SubscribeEvent
+  public static void onLevelTick(LevelTickEvent.Post event) {
+    if (!(event.getLevel() instanceof ServerLevel level)) {
+      return;
+    }
+
+    LongOpenHashSet pending = PENDING.get(level.dimension());
+    if (pending == null || pending.isEmpty()) {
+      return;
+    }
+
+    BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+    for (LongIterator it = pending.iterator(); it.hasNext(); ) {
+      long chunkKey = it.nextLong();
+      int chunkX = ChunkPos.getX(chunkKey);
+      int chunkZ = ChunkPos.getZ(chunkKey);
+      if (!level.hasChunk(chunkX, chunkZ)) {
+        it.remove();
+      } else if (level.hasChunk(chunkX - 1, chunkZ)
+          && level.hasChunk(chunkX + 1, chunkZ)
+          && level.hasChunk(chunkX, chunkZ - 1)
+          && level.hasChunk(chunkX, chunkZ + 1)) {
+        it.remove();
+        catchUp(level, index, chunkKey);
+      }
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopping(ServerStoppingEvent event) {
+    if (!Config.offlineGrowth) {
+      return;
+    }
+
+    // Loaded chunks stop growing while the server is down, so treat them like unloaded ones
+    for (ServerLevel level : event.getServer().getAllLevels()) {
+      BuddingCrystalIndex index = BuddingCrystalIndex.get(level);
+      LongOpenHashSet pending = PENDING.get(level.dimension());
+      for (long chunkKey : index.chunks().keySet()) {
+        boolean caughtUp = pending == null || !pending.contains(chunkKey);
+        if (caughtUp && level.hasChunk(ChunkPos.getX(chunkKey), ChunkPos.getZ(chunkKey))) {
+          index.setLastProcessed(chunkKey, level.getGameTime());
+        }
+      }
+    }
+    PENDING.clear();
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (event.getLevel() instanceof ServerLevel level) {
+      PENDING.remove(level.dimension());
+    }
+  }
+
+  private static void catchUp(ServerLevel level, BuddingCrystalIndex index, long chunkKey) {
+    long elapsed = level.getGameTime() - index.lastProcessed(chunkKey);
+    index.setLastProcessed(chunkKey, -1);
+
+    IndexedLongSet chunk = index.chunk(chunkKey);
+    if (elapsed <= 0 || chunk == null || chunk.isEmpty()) {
+      return;
+    }
+
+    // Growth can deteriorate blocks, which reorders the chunk's entries, so copy them first
+    long[] entries = new long[chunk.size()];
+    for (int i = 0; i < entries.length; i++) {
+      entries[i] = chunk.get(i);
+    }
+
+    double randomTicks = GrowthRates.randomTicksPerTick(level) * elapsed;
+    AcceleratorIndex accelerators = AcceleratorIndex.get(level);
+    for (long entry : entries) {
+      BlockPos pos = BuddingCrystalIndex.unpackPos(chunkKey, entry);
+      RandomSource random = GrowthRandom.at(level, pos, level.getRandom());
+      float growthChance =
+          GrowthRates.growthChance(
+              BuddingCrystalIndex.unpackType(entry), BuddingCrystalIndex.unpackQuality(entry));
+      long rolls =
+          GrowthRates.samplePoisson(
+              random, randomTicks * growthChance * accelerators.multiplier(pos));
+      for (long roll = 0; roll < rolls; roll++) {
+        BlockState state = level.getBlockState(pos);
+        if (!(state.getBlock() instanceof BuddingCrystalBlock buddingBlock)
+            || !buddingBlock.canGrow(level, pos)) {
+          break;
+        }
+        buddingBlock.attemptGrowth(level, pos, random);
+      }
+    }
+  }
+}
@@ -0,0 +1,87 @@
+package net.taya.morecrystals.growth;
+
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.levelgen.MarsagliaPolarGaussian;
+import net.minecraft.world.level.levelgen.PositionalRandomFactory;
+import net.minecraft.world.level.levelgen.RandomSupport;
+import net.minecraft.world.level.levelgen.XoroshiroRandomSource;
+
+/**
+ * A SplitMix64 random source. Its whole state is one counter, which every call advances by a
+ * fixed step and runs through the SplitMix64 finalizer, so creating one is as cheap as a single
+ * allocation and two sources created with the same seed produce the same values.
+ *
+ * <p>Not thread safe, each user creates its own.
+ */
+public final class SplitMixRandom implements RandomSource {
+  private static final float FLOAT_UNIT = 0x1.0p-24F;
+  private static final double DOUBLE_UNIT = 0x1.0p-53;
+
+  private long state;
+  private MarsagliaPolarGaussian gaussian;
+
+  public SplitMixRandom(long seed) {
+    this.state = seed;
+  }
+
+  @Override
+  public RandomSource fork() {
+    return new SplitMixRandom(nextLong());
+  }
+
+  @Override
+  public PositionalRandomFactory forkPositional() {
+    return new XoroshiroRandomSource(nextLong()).forkPositional();
+  }
+
+  @Override
+  public void setSeed(long seed) {
+    state = seed;
+    if (gaussian != null) {
+      gaussian.reset();
+    }
+  }
+
+  @Override
+  public long nextLong() {
+    state += RandomSupport.GOLDEN_RATIO_64;
+    return RandomSupport.mixStafford13(state);
+  }
+
+  @Override
+  public int nextInt() {
+    return (int) (nextLong() >>> 32);
+  }
+
+  @Override
+  public int nextInt(int bound) {
+    if (bound <= 0) {
+      throw new IllegalArgumentException("Bound must be positive");
+    }
+    // Maps the upper 32 bits onto [0, bound) with a multiply instead of a division
+    return (int) (((nextLong() >>> 32) * bound) >>> 32);
+  }
+
+  @Override
+  public boolean nextBoolean() {
+    return nextLong() < 0;
+  }
+
+  @Override
+  public float nextFloat() {
+    return (nextLong() >>> 40) * FLOAT_UNIT;
+  }
+
+  @Override
+  public double nextDouble() {
+    return (nextLong() >>> 11) * DOUBLE_UNIT;
+  }
+
+  @Override
+  public double nextGaussian() {
+    if (gaussian == null) {
+      gaussian = new MarsagliaPolarGaussian(this);
+    }
+    return gaussian.nextGaussian();
+  }
+}
@@ -0,0 +1,135 @@
+package net.taya.morecrystals.pack;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import net.minecraft.SharedConstants;
+import net.minecraft.network.chat.Component;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.AbstractPackResources;
+import net.minecraft.server.packs.PackLocationInfo;
+import net.minecraft.server.packs.PackResources;
+import net.minecraft.server.packs.PackSelectionConfig;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.server.packs.repository.Pack;
+import net.minecraft.server.packs.repository.PackSource;
+import net.minecraft.server.packs.resources.IoSupplier;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.AddPackFindersEvent;
+import net.taya.morecrystals.MoreCrystals;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * A built-in pack serving the resources {@link CrystalTypeResources} generates for crystal types
+ * that aren't bundled with the mod.
+ *
+ * <p>The pack is only added if there are such crystal types. It is always enabled and sits above
+ * the mod's own resources, so its {@code crystal_geodes} selector replaces the bundled one.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID, bus = EventBusSubscriber.Bus.MOD)
+public final class CrystalTypePack {
+  private static final String PACK_ID = MoreCrystals.MODID + "_crystal_types";
+
+  private CrystalTypePack() {}
+
+  @SubscribeEvent
+  public static void onAddPackFinders(AddPackFindersEvent event) {
+    if (CrystalTypeResources.generatedTypes().isEmpty()) {
+      return;
+    }
+
+    PackType packType = event.getPackType();
+    PackLocationInfo location =
+        new PackLocationInfo(
+            PACK_ID,
+            Component.literal("More Crystals: crystal types"),
+            PackSource.BUILT_IN,
+            Optional.empty());
+    Pack.ResourcesSupplier resources =
+        new Pack.ResourcesSupplier() {
+          @Override
+          public PackResources openPrimary(PackLocationInfo location) {
+            return new Resources(location, packType);
+          }
+
+          @Override
+          public PackResources openFull(PackLocationInfo location, Pack.Metadata metadata) {
+            return new Resources(location, packType);
+          }
+        };
+    Pack pack =
+        Pack.readMetaAndCreate(
+            location, resources, packType, new PackSelectionConfig(true, Pack.Position.TOP, false));
+    if (pack != null) {
+      event.addRepositorySource(packs -> packs.accept(pack));
+    }
+  }
+
+  /** The generated files of one pack type, held in memory */
+  private static final class Resources extends AbstractPackResources {
+    private final PackType packType;
+
+    Resources(PackLocationInfo location, PackType packType) {
+      super(location);
+      this.packType = packType;
+    }
+
+    @Nullable
+    @Override
+    public IoSupplier<InputStream> getRootResource(String... elements) {
+      if (elements.length != 1 || !elements[0].equals(PACK_META)) {
+        return null;
+      }
+
+      String meta =
+          "{\"pack\":{\"description\":\"Resources of config defined crystal types\","
+              + "\"pack_format\":"
+              + SharedConstants.getCurrentVersion().getPackVersion(packType)
+              + "}}";
+      return open(meta.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Nullable
+    @Override
+    public IoSupplier<InputStream> getResource(PackType type, ResourceLocation location) {
+      if (type != packType) {
+        return null;
+      }
+      byte[] file = CrystalTypeResources.get(packType).get(location);
+      return file != null ? open(file) : null;
+    }
+
+    @Override
+    public void listResources(
+        PackType type, String namespace, String path, PackResources.ResourceOutput output) {
+      if (type != packType) {
+        return;
+      }
+
+      String prefix = path + "/";
+      for (Map.Entry<ResourceLocation, byte[]> file :
+          CrystalTypeResources.get(packType).entrySet()) {
+        ResourceLocation location = file.getKey();
+        if (location.getNamespace().equals(namespace) && location.getPath().startsWith(prefix)) {
+          output.accept(location, open(file.getValue()));
+        }
+      }
+    }
+
+    @Override
+    public Set<String> getNamespaces(PackType type) {
+      return type == packType ? Set.of(MoreCrystals.MODID) : Set.of();
+    }
+
+    @Override
+    public void close() {}
+
+    private static IoSupplier<InputStream> open(byte[] bytes) {
+      return () -> new ByteArrayInputStream(bytes);
+    }
+  }
+}
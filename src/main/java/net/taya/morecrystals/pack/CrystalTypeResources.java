@@ -0,0 +1,462 @@
+package net.taya.morecrystals.pack;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.mojang.serialization.JsonOps;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import net.minecraft.core.Direction;
+import net.minecraft.core.registries.BuiltInRegistries;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.server.packs.PackType;
+import net.minecraft.world.level.ItemLike;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.block.state.properties.Property;
+import net.minecraft.world.level.levelgen.feature.ConfiguredFeature;
+import net.neoforged.neoforge.registries.DeferredBlock;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.CrystalTypeDefinition;
+import net.taya.morecrystals.CrystalTypeLoader;
+import net.taya.morecrystals.MoreCrystals;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+import net.taya.morecrystals.blocks.CrystalDrops;
+import net.taya.morecrystals.blocks.StagedCrystalBudBlock;
+import net.taya.morecrystals.worldgen.CrystalGeodeConfiguration;
+
+/**
+ * Generates the resources of crystal types that the mod jar has none for.
+ *
+ * <p>Datagen only runs over the crystal types bundled with the mod, so types added to (or changed
+ * in) the crystal type file would have no blockstates, models, names, loot tables or geodes. Their
+ * resources are generated here instead, matching what datagen produces for the bundled types, and
+ * served by {@link CrystalTypePack}. Only their textures have to come from a resource pack.
+ */
+public final class CrystalTypeResources {
+  private static final String SILK_TOUCH = "minecraft:silk_touch";
+
+  // Generated on first use, once all blocks are registered
+  private static final Map<PackType, Map<ResourceLocation, byte[]>> GENERATED =
+      new ConcurrentHashMap<>();
+
+  private CrystalTypeResources() {}
+
+  /**
+   * Gets the crystal types whose resources are generated, which are all types whose definition
+   * differs from the bundled one, since that may change their blocks
+   *
+   * @return The crystal types, in registry order
+   */
+  public static List<CrystalType> generatedTypes() {
+    List<CrystalTypeDefinition> bundled = CrystalTypeLoader.loadDefaults();
+    List<CrystalType> types = new ArrayList<>();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      if (!bundled.contains(type.definition)) {
+        types.add(type);
+      }
+    }
+    return types;
+  }
+
+  /**
+   * Gets the generated resources of a pack type
+   *
+   * @param packType The pack type
+   * @return The file contents, by their location within the pack type's root
+   */
+  public static Map<ResourceLocation, byte[]> get(PackType packType) {
+    return GENERATED.computeIfAbsent(packType, CrystalTypeResources::generate);
+  }
+
+  private static Map<ResourceLocation, byte[]> generate(PackType packType) {
+    List<CrystalType> types = generatedTypes();
+    Map<ResourceLocation, JsonElement> files = new LinkedHashMap<>();
+    if (!types.isEmpty()) {
+      if (packType == PackType.CLIENT_RESOURCES) {
+        addAssets(files, types);
+      } else {
+        addData(files, types);
+      }
+    }
+
+    Map<ResourceLocation, byte[]> encoded = new LinkedHashMap<>();
+    files.forEach(
+        (location, json) ->
+            encoded.put(location, json.toString().getBytes(StandardCharsets.UTF_8)));
+    MoreCrystals.LOGGER.info(
+        "Generated {} {} files for {} crystal types", encoded.size(), packType, types.size());
+    return Map.copyOf(encoded);
+  }
+
+  /** Adds the blockstates, models and lang entries of the given crystal types */
+  private static void addAssets(Map<ResourceLocation, JsonElement> files, List<CrystalType> types) {
+    JsonObject lang = new JsonObject();
+    for (CrystalType type : types) {
+      String formattedName = formatName(type.name);
+
+      addCubeBlock(files, type.crystalBlock, texture(type, "crystal_block"));
+      lang.addProperty(translationKey(type.crystalBlock.getId()), formattedName + " Block");
+
+      for (BuddingCrystalBlock.BuddingQuality quality :
+          BuddingCrystalBlock.BuddingQuality.values()) {
+        DeferredBlock<Block> buddingBlock = type.getBuddingBlock(quality);
+        addCubeBlock(files, buddingBlock, texture(type, quality.getPrefix() + "_budding"));
+        lang.addProperty(
+            translationKey(buddingBlock.getId()),
+            formatName(quality.getPrefix()) + " Budding " + formattedName);
+      }
+
+      // One model and item per bud growth stage, whether or not the stages share a block
+      CrystalBudBlock.GrowthStage[] stages = CrystalBudBlock.GrowthStage.values();
+      ResourceLocation[] stageModels = new ResourceLocation[stages.length];
+      Set<DeferredBlock<Block>> budBlocks = new LinkedHashSet<>();
+      for (CrystalBudBlock.GrowthStage stage : stages) {
+        ResourceLocation budId = modLoc(type.budId(stage));
+        stageModels[stage.ordinal()] = budId.withPrefix("block/");
+        files.put(
+            json("models/block/", budId), crossModel(texture(type, budTexture(stage))));
+        files.put(json("models/item/", budId), itemModel(stageModels[stage.ordinal()]));
+        lang.addProperty(translationKey(budId), budName(stage, formattedName));
+        budBlocks.add(type.getBudBlock(stage));
+      }
+      budBlocks.addAll(type.legacyBudBlocks);
+      if (type.definition.singleBlockBuds()) {
+        lang.addProperty(translationKey(type.clusterBlock.getId()), formattedName + " Bud");
+      }
+
+      // Textures can't be looked up before resources load, so shards use the cluster texture
+      // unless a resource pack replaces their model
+      JsonObject shardTextures = new JsonObject();
+      shardTextures.addProperty("layer0", texture(type, "cluster").toString());
+      JsonObject shardModel = new JsonObject();
+      shardModel.addProperty("parent", "minecraft:item/generated");
+      shardModel.add("textures", shardTextures);
+      files.put(json("models/item/", type.shardItem.getId()), shardModel);
+      lang.addProperty(
+          "item." + MoreCrystals.MODID + "." + type.name + "_shard", formattedName + " Shard");
+
+      for (DeferredBlock<Block> budBlock : budBlocks) {
+        CrystalBudBlock block = (CrystalBudBlock) budBlock.get();
+        files.put(
+            json("blockstates/", budBlock.getId()),
+            variants(
+                block,
+                state ->
+                    rotatedVariant(
+                        stageModels[block.getGrowthStage(state).ordinal()],
+                        state.getValue(CrystalBudBlock.FACING))));
+      }
+    }
+    files.put(modLoc("lang/en_us.json"), lang);
+  }
+
+  /** Adds the loot tables and geode features of the given crystal types */
+  private static void addData(Map<ResourceLocation, JsonElement> files, List<CrystalType> types) {
+    for (CrystalType type : types) {
+      Block crystalBlock = type.crystalBlock.get();
+      addLootTable(
+          files, crystalBlock, pool(item(crystalBlock), condition("minecraft:survives_explosion")));
+
+      // Without silk touch, budding blocks break down into a plain crystal block
+      for (BuddingCrystalBlock.BuddingQuality quality :
+          BuddingCrystalBlock.BuddingQuality.values()) {
+        Block budding = type.getBuddingBlock(quality).get();
+        JsonObject crystal = item(crystalBlock);
+        crystal.add("conditions", array(condition("minecraft:survives_explosion")));
+        addLootTable(files, budding, pool(alternatives(silkTouch(item(budding)), crystal)));
+      }
+
+      if (type.definition.singleBlockBuds()) {
+        // One pool per stage, each only rolled while the block is at that stage
+        Block block = type.clusterBlock.get();
+        List<JsonObject> pools = new ArrayList<>();
+        for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+          JsonObject properties = new JsonObject();
+          properties.addProperty(
+              StagedCrystalBudBlock.STAGE.getName(), String.valueOf(stage.getLevel()));
+          JsonObject atStage = condition("minecraft:block_state_property");
+          atStage.addProperty("block", id(block).toString());
+          atStage.add("properties", properties);
+          pools.add(pool(budEntry(type, stage), atStage));
+        }
+        addLootTable(files, block, pools.toArray(JsonObject[]::new));
+      } else {
+        for (CrystalBudBlock.GrowthStage stage : CrystalBudBlock.GrowthStage.values()) {
+          addLootTable(files, type.getBudBlock(stage).get(), pool(budEntry(type, stage)));
+        }
+      }
+      for (DeferredBlock<Block> legacyBudBlock : type.legacyBudBlocks) {
+        CrystalBudBlock budBlock = (CrystalBudBlock) legacyBudBlock.get();
+        CrystalBudBlock.GrowthStage stage = budBlock.getGrowthStage(budBlock.defaultBlockState());
+        addLootTable(files, budBlock, pool(budEntry(type, stage)));
+      }
+
+      ConfiguredFeature<?, ?> geode =
+          new ConfiguredFeature<>(
+              MoreCrystals.CRYSTAL_GEODE.get(), CrystalGeodeConfiguration.standard(type));
+      files.put(
+          json("worldgen/configured_feature/", geodeId(type)),
+          ConfiguredFeature.DIRECT_CODEC.encodeStart(JsonOps.INSTANCE, geode).getOrThrow());
+      // Only placed through the selector, which already did the placement
+      JsonObject placed = new JsonObject();
+      placed.addProperty("feature", geodeId(type).toString());
+      placed.add("placement", new JsonArray());
+      files.put(json("worldgen/placed_feature/", geodeId(type)), placed);
+    }
+
+    // The selector of the bundled data only knows the bundled crystal types
+    JsonArray features = new JsonArray();
+    for (CrystalType type : CrystalType.REGISTRY) {
+      features.add(geodeId(type).toString());
+    }
+    JsonObject selectorConfig = new JsonObject();
+    selectorConfig.add("features", features);
+    JsonObject selector = new JsonObject();
+    selector.addProperty("type", "minecraft:simple_random_selector");
+    selector.add("config", selectorConfig);
+    files.put(json("worldgen/configured_feature/", modLoc("crystal_geodes")), selector);
+  }
+
+  // Same rules as CrystalLootProvider: buds need silk touch, clusters otherwise drop shards
+  private static JsonObject budEntry(CrystalType type, CrystalBudBlock.GrowthStage stage) {
+    JsonObject stageItem = silkTouch(item(type.getBudItem(stage).get()));
+    if (stage != CrystalBudBlock.GrowthStage.CLUSTER) {
+      return stageItem;
+    }
+
+    JsonObject fortune = function("minecraft:apply_bonus");
+    fortune.addProperty("enchantment", "minecraft:fortune");
+    fortune.addProperty("formula", "minecraft:ore_drops");
+    JsonObject toolPredicate = new JsonObject();
+    toolPredicate.addProperty("items", "#minecraft:cluster_max_harvestables");
+    JsonObject matchesTool = condition("minecraft:match_tool");
+    matchesTool.add("predicate", toolPredicate);
+    JsonObject shards = item(type.shardItem.get());
+    shards.add("functions", array(setCount(CrystalDrops.CLUSTER_SHARDS), fortune));
+    shards.add("conditions", array(matchesTool));
+
+    JsonObject reducedShards = item(type.shardItem.get());
+    reducedShards.add(
+        "functions",
+        array(
+            setCount(CrystalDrops.REDUCED_CLUSTER_SHARDS),
+            function("minecraft:explosion_decay")));
+
+    return alternatives(stageItem, shards, reducedShards);
+  }
+
+  private static void addLootTable(
+      Map<ResourceLocation, JsonElement> files, Block block, JsonObject... pools) {
+    ResourceLocation table = block.getLootTable().location();
+    JsonObject lootTable = new JsonObject();
+    lootTable.addProperty("type", "minecraft:block");
+    lootTable.add("pools", array(pools));
+    lootTable.addProperty("random_sequence", table.toString());
+    files.put(json("loot_table/", table), lootTable);
+  }
+
+  private static JsonObject pool(JsonObject entry, JsonObject... conditions) {
+    JsonObject pool = new JsonObject();
+    pool.addProperty("rolls", 1.0F);
+    pool.addProperty("bonus_rolls", 0.0F);
+    pool.add("entries", array(entry));
+    if (conditions.length > 0) {
+      pool.add("conditions", array(conditions));
+    }
+    return pool;
+  }
+
+  private static JsonObject item(ItemLike item) {
+    JsonObject entry = new JsonObject();
+    entry.addProperty("type", "minecraft:item");
+    entry.addProperty("name", BuiltInRegistries.ITEM.getKey(item.asItem()).toString());
+    return entry;
+  }
+
+  private static JsonObject alternatives(JsonObject... children) {
+    JsonObject entry = new JsonObject();
+    entry.addProperty("type", "minecraft:alternatives");
+    entry.add("children", array(children));
+    return entry;
+  }
+
+  private static JsonObject silkTouch(JsonObject entry) {
+    JsonObject silkTouch = new JsonObject();
+    silkTouch.addProperty("enchantments", SILK_TOUCH);
+    JsonObject levels = new JsonObject();
+    levels.addProperty("min", 1);
+    silkTouch.add("levels", levels);
+    JsonObject predicates = new JsonObject();
+    predicates.add("minecraft:enchantments", array(silkTouch));
+    JsonObject predicate = new JsonObject();
+    predicate.add("predicates", predicates);
+    JsonObject matchesTool = condition("minecraft:match_tool");
+    matchesTool.add("predicate", predicate);
+    entry.add("conditions", array(matchesTool));
+    return entry;
+  }
+
+  private static JsonObject setCount(int count) {
+    JsonObject function = function("minecraft:set_count");
+    function.addProperty("count", (float) count);
+    function.addProperty("add", false);
+    return function;
+  }
+
+  private static JsonObject condition(String type) {
+    JsonObject condition = new JsonObject();
+    condition.addProperty("condition", type);
+    return condition;
+  }
+
+  private static JsonObject function(String type) {
+    JsonObject function = new JsonObject();
+    function.addProperty("function", type);
+    return function;
+  }
+
+  private static JsonArray array(JsonObject... elements) {
+    JsonArray array = new JsonArray();
+    for (JsonObject element : elements) {
+      array.add(element);
+    }
+    return array;
+  }
+
+  /** Adds the model, item model and blockstate of a full cube block */
+  private static void addCubeBlock(
+      Map<ResourceLocation, JsonElement> files,
+      DeferredBlock<Block> block,
+      ResourceLocation texture) {
+    ResourceLocation model = block.getId().withPrefix("block/");
+
+    JsonObject textures = new JsonObject();
+    textures.addProperty("all", texture.toString());
+    JsonObject cube = new JsonObject();
+    cube.addProperty("parent", "minecraft:block/cube_all");
+    cube.add("textures", textures);
+
+    files.put(json("models/block/", block.getId()), cube);
+    files.put(json("models/item/", block.getId()), itemModel(model));
+    files.put(
+        json("blockstates/", block.getId()),
+        variants(block.get(), state -> rotatedVariant(model, Direction.UP)));
+  }
+
+  private static JsonObject crossModel(ResourceLocation texture) {
+    JsonObject textures = new JsonObject();
+    textures.addProperty("cross", texture.toString());
+    JsonObject model = new JsonObject();
+    model.addProperty("parent", "minecraft:block/cross");
+    model.addProperty("render_type", "minecraft:cutout");
+    model.add("textures", textures);
+    return model;
+  }
+
+  private static JsonObject itemModel(ResourceLocation parent) {
+    JsonObject model = new JsonObject();
+    model.addProperty("parent", parent.toString());
+    return model;
+  }
+
+  private static JsonObject variants(Block block, Function<BlockState, JsonObject> variant) {
+    JsonObject variants = new JsonObject();
+    for (BlockState state : block.getStateDefinition().getPossibleStates()) {
+      variants.add(variantKey(state), variant.apply(state));
+    }
+    JsonObject blockState = new JsonObject();
+    blockState.add("variants", variants);
+    return blockState;
+  }
+
+  private static String variantKey(BlockState state) {
+    return state.getProperties().stream()
+        .sorted(Comparator.comparing(Property::getName))
+        .map(property -> property.getName() + "=" + valueName(state, property))
+        .collect(Collectors.joining(","));
+  }
+
+  private static <T extends Comparable<T>> String valueName(
+      BlockState state, Property<T> property) {
+    return property.getName(state.getValue(property));
+  }
+
+  /** Creates a blockstate variant that turns an upward facing model to face a direction */
+  private static JsonObject rotatedVariant(ResourceLocation model, Direction facing) {
+    JsonObject variant = new JsonObject();
+    variant.addProperty("model", model.toString());
+    if (facing != Direction.UP) {
+      variant.addProperty("x", facing == Direction.DOWN ? 180 : 90);
+      int y =
+          switch (facing) {
+            case SOUTH -> 180;
+            case WEST -> 270;
+            case EAST -> 90;
+            default -> 0; // NORTH or DOWN
+          };
+      if (y != 0) {
+        variant.addProperty("y", y);
+      }
+    }
+    return variant;
+  }
+
+  private static ResourceLocation texture(CrystalType type, String name) {
+    return modLoc("block/" + type.name + "/" + name);
+  }
+
+  private static String budTexture(CrystalBudBlock.GrowthStage stage) {
+    return stage == CrystalBudBlock.GrowthStage.CLUSTER
+        ? "cluster"
+        : stage.name().toLowerCase(Locale.ROOT) + "_bud";
+  }
+
+  private static String budName(CrystalBudBlock.GrowthStage stage, String formattedName) {
+    return switch (stage) {
+      case SMALL -> "Small " + formattedName + " Bud";
+      case MEDIUM -> "Medium " + formattedName + " Bud";
+      case LARGE -> "Large " + formattedName + " Bud";
+      case CLUSTER -> formattedName + " Cluster";
+    };
+  }
+
+  private static ResourceLocation geodeId(CrystalType type) {
+    return modLoc("crystal_geode_" + type.name);
+  }
+
+  private static ResourceLocation id(Block block) {
+    return BuiltInRegistries.BLOCK.getKey(block);
+  }
+
+  /** Gets the location of a JSON file, e.g. {@code blockstates/<id>.json} */
+  private static ResourceLocation json(String directory, ResourceLocation id) {
+    return id.withPath(path -> directory + path + ".json");
+  }
+
+  private static String translationKey(ResourceLocation id) {
+    return "block." + id.getNamespace() + "." + id.getPath();
+  }
+
+  private static ResourceLocation modLoc(String path) {
+    return ResourceLocation.fromNamespaceAndPath(MoreCrystals.MODID, path);
+  }
+
+  /** Format a name to be capitalized nicely */
+  private static String formatName(String name) {
+    if (name.isEmpty()) return "";
+
+    return name.substring(0, 1).toUpperCase() + name.substring(1);
+  }
+}
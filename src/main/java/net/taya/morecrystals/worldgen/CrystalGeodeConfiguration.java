@@ -0,0 +1,91 @@
+package net.taya.morecrystals.worldgen;
+
+import com.mojang.serialization.Codec;
+import com.mojang.serialization.DataResult;
+import com.mojang.serialization.codecs.RecordCodecBuilder;
+import net.minecraft.util.valueproviders.IntProvider;
+import net.minecraft.util.valueproviders.UniformInt;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.levelgen.feature.configurations.FeatureConfiguration;
+import net.taya.morecrystals.CrystalType;
+
+/**
+ * Configuration of a {@link CrystalGeodeFeature}
+ *
+ * @param crystalType The crystal type the geode is made of
+ * @param radius The radius of the crystal layer; the shells add two more blocks
+ * @param buddingChance The chance that a crystal layer block is a budding block
+ * @param flawlessChance The chance that a budding block is flawless rather than a lower quality
+ * @param budChance The chance that an open face of a budding block has a bud
+ * @param innerShell The block of the shell around the crystal layer
+ * @param outerShell The block of the outermost shell
+ */
+public record CrystalGeodeConfiguration(
+    CrystalType crystalType,
+    IntProvider radius,
+    float buddingChance,
+    float flawlessChance,
+    float budChance,
+    BlockState innerShell,
+    BlockState outerShell)
+    implements FeatureConfiguration {
+  // The radius is limited so geodes never reach past the neighbouring chunks
+  public static final int MIN_RADIUS = 3;
+  public static final int MAX_RADIUS = 6;
+
+  private static final Codec<CrystalType> CRYSTAL_TYPE_CODEC =
+      Codec.STRING.comapFlatMap(
+          name -> {
+            CrystalType type = CrystalType.REGISTRY.get(name);
+            return type != null
+                ? DataResult.success(type)
+                : DataResult.error(() -> "Unknown crystal type: " + name);
+          },
+          type -> type.name);
+
+  public static final Codec<CrystalGeodeConfiguration> CODEC =
+      RecordCodecBuilder.create(
+          instance ->
+              instance
+                  .group(
+                      CRYSTAL_TYPE_CODEC
+                          .fieldOf("crystal_type")
+                          .forGetter(CrystalGeodeConfiguration::crystalType),
+                      IntProvider.codec(MIN_RADIUS, MAX_RADIUS)
+                          .fieldOf("radius")
+                          .forGetter(CrystalGeodeConfiguration::radius),
+                      Codec.floatRange(0.0F, 1.0F)
+                          .fieldOf("budding_chance")
+                          .forGetter(CrystalGeodeConfiguration::buddingChance),
+                      Codec.floatRange(0.0F, 1.0F)
+                          .fieldOf("flawless_chance")
+                          .forGetter(CrystalGeodeConfiguration::flawlessChance),
+                      Codec.floatRange(0.0F, 1.0F)
+                          .fieldOf("bud_chance")
+                          .forGetter(CrystalGeodeConfiguration::budChance),
+                      BlockState.CODEC
+                          .fieldOf("inner_shell")
+                          .forGetter(CrystalGeodeConfiguration::innerShell),
+                      BlockState.CODEC
+                          .fieldOf("outer_shell")
+                          .forGetter(CrystalGeodeConfiguration::outerShell))
+                  .apply(instance, CrystalGeodeConfiguration::new));
+
+  /**
+   * Creates the configuration every crystal type's geode feature uses
+   *
+   * @param crystalType The crystal type the geode is made of
+   * @return The configuration
+   */
+  public static CrystalGeodeConfiguration standard(CrystalType crystalType) {
+    return new CrystalGeodeConfiguration(
+        crystalType,
+        UniformInt.of(MIN_RADIUS, MAX_RADIUS),
+        0.1F,
+        0.05F,
+        0.2F,
+        Blocks.CALCITE.defaultBlockState(),
+        Blocks.SMOOTH_BASALT.defaultBlockState());
+  }
+}
@@ -0,0 +1,281 @@
+package net.taya.morecrystals.worldgen;
+
+import com.mojang.serialization.Codec;
+import java.util.Collection;
+import java.util.Map;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.WorldGenRegion;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.RandomSource;
+import net.minecraft.world.level.WorldGenLevel;
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.levelgen.Heightmap;
+import net.minecraft.world.level.levelgen.feature.Feature;
+import net.minecraft.world.level.levelgen.feature.FeaturePlaceContext;
+import net.taya.morecrystals.CrystalType;
+import net.taya.morecrystals.blocks.BuddingCrystalBlock;
+import net.taya.morecrystals.blocks.CrystalBudBlock;
+
+/**
+ * Places a hollow geode lined with crystal and budding blocks of a single crystal type, with buds
+ * growing into the hollow.
+ *
+ * <p>The geode is first laid out in a local buffer. During world generation the buffer is then
+ * written straight into the palettes of the chunk sections it overlaps, one section at a time,
+ * instead of going through {@code setBlock} per block. Chunks are not lit before the features
+ * step and block updates are never sent during world generation, so only the heightmaps have to
+ * be kept up to date. Outside of world generation (e.g. {@code /place feature}) the regular
+ * {@code setBlock} path is used so clients and lighting stay in sync.
+ */
+public class CrystalGeodeFeature extends Feature<CrystalGeodeConfiguration> {
+  private static final Direction[] DIRECTIONS = Direction.values();
+  private static final CrystalBudBlock.GrowthStage[] STAGES = CrystalBudBlock.GrowthStage.values();
+
+  private static final BuddingCrystalBlock.BuddingQuality[] DETERIORATING_QUALITIES = {
+    BuddingCrystalBlock.BuddingQuality.FLAWED,
+    BuddingCrystalBlock.BuddingQuality.CHIPPED,
+    BuddingCrystalBlock.BuddingQuality.DAMAGED
+  };
+
+  public CrystalGeodeFeature(Codec<CrystalGeodeConfiguration> codec) {
+    super(codec);
+  }
+
+  @Override
+  public boolean place(FeaturePlaceContext<CrystalGeodeConfiguration> context) {
+    CrystalGeodeConfiguration config = context.config();
+    WorldGenLevel level = context.level();
+    BlockPos origin = context.origin();
+    RandomSource random = context.random();
+
+    GeodeLayout layout = new GeodeLayout(origin, config.radius().sample(random));
+    layout.fill(config, random);
+
+    // Geodes cut open by water or lava would flood, so don't place them at all
+    if (layout.touchesFluid(level)) {
+      return false;
+    }
+
+    if (level instanceof WorldGenRegion) {
+      layout.writeSections(level);
+    } else {
+      layout.writeBlocks(level);
+    }
+    return true;
+  }
+
+  /** Block states of a geode in a cube around its origin, null where nothing is placed */
+  private static final class GeodeLayout {
+    private final BlockPos origin;
+    private final int radius;
+    private final int extent;
+    private final int size;
+    private final BlockState[] states;
+
+    GeodeLayout(BlockPos origin, int radius) {
+      this.origin = origin;
+      this.radius = radius;
+      // The crystal layer plus the inner and outer shell
+      this.extent = radius + 2;
+      this.size = extent * 2 + 1;
+      this.states = new BlockState[size * size * size];
+    }
+
+    void fill(CrystalGeodeConfiguration config, RandomSource random) {
+      CrystalType type = config.crystalType();
+      BlockState air = Blocks.AIR.defaultBlockState();
+      BlockState crystal = type.crystalBlock.get().defaultBlockState();
+      int hollow = (radius - 1) * (radius - 1);
+      int crystalLayer = radius * radius;
+      int innerShell = (radius + 1) * (radius + 1);
+      int outerShell = extent * extent;
+
+      for (int dx = -extent; dx <= extent; dx++) {
+        for (int dy = -extent; dy <= extent; dy++) {
+          for (int dz = -extent; dz <= extent; dz++) {
+            int distance = dx * dx + dy * dy + dz * dz;
+            BlockState state;
+            if (distance <= hollow) {
+              state = air;
+            } else if (distance <= crystalLayer) {
+              state =
+                  random.nextFloat() < config.buddingChance()
+                      ? buddingState(type, config, random)
+                      : crystal;
+            } else if (distance <= innerShell) {
+              state = config.innerShell();
+            } else if (distance <= outerShell) {
+              state = config.outerShell();
+            } else {
+              continue;
+            }
+            states[index(dx, dy, dz)] = state;
+          }
+        }
+      }
+
+      placeBuds(type, config, random, air);
+    }
+
+    private void placeBuds(
+        CrystalType type, CrystalGeodeConfiguration config, RandomSource random, BlockState air) {
+      BlockState[] budStages = new BlockState[STAGES.length];
+      for (CrystalBudBlock.GrowthStage stage : STAGES) {
+        budStages[stage.ordinal()] = type.getBudState(stage);
+      }
+
+      // Budding blocks only sit in the crystal layer, so the outermost two shells can be skipped
+      for (int dx = -radius; dx <= radius; dx++) {
+        for (int dy = -radius; dy <= radius; dy++) {
+          for (int dz = -radius; dz <= radius; dz++) {
+            BlockState state = states[index(dx, dy, dz)];
+            if (state == null || !(state.getBlock() instanceof BuddingCrystalBlock)) {
+              continue;
+            }
+
+            for (Direction direction : DIRECTIONS) {
+              int budIndex =
+                  index(
+                      dx + direction.getStepX(),
+                      dy + direction.getStepY(),
+                      dz + direction.getStepZ());
+              if (states[budIndex] == air && random.nextFloat() < config.budChance()) {
+                BlockState stage = budStages[random.nextInt(budStages.length)];
+                states[budIndex] = stage.setValue(CrystalBudBlock.FACING, direction);
+              }
+            }
+          }
+        }
+      }
+    }
+
+    private static BlockState buddingState(
+        CrystalType type, CrystalGeodeConfiguration config, RandomSource random) {
+      BuddingCrystalBlock.BuddingQuality quality =
+          random.nextFloat() < config.flawlessChance()
+              ? BuddingCrystalBlock.BuddingQuality.FLAWLESS
+              : DETERIORATING_QUALITIES[random.nextInt(DETERIORATING_QUALITIES.length)];
+      return type.getBuddingBlock(quality).get().defaultBlockState();
+    }
+
+    boolean touchesFluid(WorldGenLevel level) {
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      for (int dx = -extent; dx <= extent; dx++) {
+        for (int dy = -extent; dy <= extent; dy++) {
+          for (int dz = -extent; dz <= extent; dz++) {
+            if (states[index(dx, dy, dz)] != null) {
+              pos.setWithOffset(origin, dx, dy, dz);
+              if (!level.getFluidState(pos).isEmpty()) {
+                return true;
+              }
+            }
+          }
+        }
+      }
+      return false;
+    }
+
+    void writeBlocks(WorldGenLevel level) {
+      BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+      for (int dx = -extent; dx <= extent; dx++) {
+        for (int dy = -extent; dy <= extent; dy++) {
+          for (int dz = -extent; dz <= extent; dz++) {
+            BlockState state = states[index(dx, dy, dz)];
+            pos.setWithOffset(origin, dx, dy, dz);
+            if (state != null && canReplace(level.getBlockState(pos))) {
+              level.setBlock(pos, state, Block.UPDATE_CLIENTS);
+            }
+          }
+        }
+      }
+    }
+
+    void writeSections(WorldGenLevel level) {
+      int minX = origin.getX() - extent;
+      int minY = origin.getY() - extent;
+      int minZ = origin.getZ() - extent;
+      int maxX = origin.getX() + extent;
+      int maxY = origin.getY() + extent;
+      int maxZ = origin.getZ() + extent;
+
+      for (int sectionX = SectionPos.blockToSectionCoord(minX);
+          sectionX <= SectionPos.blockToSectionCoord(maxX);
+          sectionX++) {
+        for (int sectionZ = SectionPos.blockToSectionCoord(minZ);
+            sectionZ <= SectionPos.blockToSectionCoord(maxZ);
+            sectionZ++) {
+          ChunkAccess chunk = level.getChunk(sectionX, sectionZ);
+          Collection<Map.Entry<Heightmap.Types, Heightmap>> heightmaps = chunk.getHeightmaps();
+          chunk.setUnsaved(true);
+          for (int sectionY = SectionPos.blockToSectionCoord(minY);
+              sectionY <= SectionPos.blockToSectionCoord(maxY);
+              sectionY++) {
+            int sectionIndex = chunk.getSectionIndexFromSectionY(sectionY);
+            if (sectionIndex >= 0 && sectionIndex < chunk.getSectionsCount()) {
+              writeSection(
+                  chunk.getSection(sectionIndex),
+                  heightmaps,
+                  SectionPos.sectionToBlockCoord(sectionX),
+                  SectionPos.sectionToBlockCoord(sectionY),
+                  SectionPos.sectionToBlockCoord(sectionZ));
+            }
+          }
+        }
+      }
+    }
+
+    private void writeSection(
+        LevelChunkSection section,
+        Collection<Map.Entry<Heightmap.Types, Heightmap>> heightmaps,
+        int sectionMinX,
+        int sectionMinY,
+        int sectionMinZ) {
+      // Clamp the geode's bounds to this section
+      int fromX = Math.max(origin.getX() - extent, sectionMinX);
+      int fromY = Math.max(origin.getY() - extent, sectionMinY);
+      int fromZ = Math.max(origin.getZ() - extent, sectionMinZ);
+      int toX = Math.min(origin.getX() + extent, sectionMinX + SectionPos.SECTION_MAX_INDEX);
+      int toY = Math.min(origin.getY() + extent, sectionMinY + SectionPos.SECTION_MAX_INDEX);
+      int toZ = Math.min(origin.getZ() + extent, sectionMinZ + SectionPos.SECTION_MAX_INDEX);
+
+      // Hold the section once for the whole batch instead of once per block
+      section.acquire();
+      try {
+        for (int y = fromY; y <= toY; y++) {
+          for (int z = fromZ; z <= toZ; z++) {
+            for (int x = fromX; x <= toX; x++) {
+              BlockState state =
+                  states[index(x - origin.getX(), y - origin.getY(), z - origin.getZ())];
+              int localX = x - sectionMinX;
+              int localY = y - sectionMinY;
+              int localZ = z - sectionMinZ;
+              if (state == null || !canReplace(section.getBlockState(localX, localY, localZ))) {
+                continue;
+              }
+              section.setBlockState(localX, localY, localZ, state, false);
+              for (Map.Entry<Heightmap.Types, Heightmap> heightmap : heightmaps) {
+                heightmap.getValue().update(localX, y, localZ, state);
+              }
+            }
+          }
+        }
+      } finally {
+        section.release();
+      }
+    }
+
+    private static boolean canReplace(BlockState state) {
+      return !state.is(BlockTags.FEATURES_CANNOT_REPLACE);
+    }
+
+    private int index(int dx, int dy, int dz) {
+      return ((dx + extent) * size + dy + extent) * size + dz + extent;
+    }
+  }
+}
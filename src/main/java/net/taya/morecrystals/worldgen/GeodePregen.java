@@ -0,0 +1,209 @@
+package net.taya.morecrystals.worldgen;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.core.BlockPos;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ChunkResult;
+import net.minecraft.server.level.ServerChunkCache;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.TicketType;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.chunk.ChunkAccess;
+import net.minecraft.world.level.chunk.status.ChunkStatus;
+import net.neoforged.bus.api.SubscribeEvent;
+import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.level.LevelEvent;
+import net.neoforged.neoforge.event.server.ServerStoppingEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
+import net.taya.morecrystals.Config;
+import net.taya.morecrystals.MoreCrystals;
+
+/**
+ * Pre-generates the chunks of a square, so their crystal geodes exist before players arrive, for
+ * {@code /morecrystals pregen}.
+ *
+ * <p>Pregeneration never places geodes itself. Generating a chunk runs the {@code crystal_geodes}
+ * feature like any other generation, so pregenerated areas get the same geodes at the same density
+ * as areas players explore, derived from the world seed. Chunks that were generated before are
+ * only loaded and stay untouched, so geodes are never carved through existing terrain or builds.
+ *
+ * <p>Chunks are requested row by row, at most {@link Config#pregenChunksPerTick} per server tick.
+ * Each request holds a chunk ticket, so the chunk generates on the world generation threads like a
+ * chunk near a player would, and the server thread only checks which requests are done and
+ * releases their tickets. It never waits for a chunk to generate.
+ */
+@EventBusSubscriber(modid = MoreCrystals.MODID)
+public final class GeodePregen {
+  // Keeps requested chunks loaded at full status until they are generated
+  private static final TicketType<ChunkPos> PREGEN_TICKET =
+      TicketType.create(MoreCrystals.MODID + "_pregen", Comparator.comparingLong(ChunkPos::toLong));
+
+  // Most chunks generating at once, so a slow generator doesn't pile up requests
+  private static final int MAX_IN_FLIGHT = 256;
+
+  private static final int PROGRESS_INTERVAL_TICKS = 100;
+
+  // The running pregeneration, only touched from the server thread
+  private static PregenTask task;
+
+  private GeodePregen() {}
+
+  /**
+   * Starts pre-generating chunks around a position
+   *
+   * @param source The command source to report progress to
+   * @param level The level to generate chunks in
+   * @param center The position to center the square on
+   * @param radius The radius of the square, in chunks
+   * @return false if a pregeneration is already running
+   */
+  public static boolean start(
+      CommandSourceStack source, ServerLevel level, BlockPos center, int radius) {
+    if (task != null) {
+      source.sendFailure(Component.literal("A geode pregeneration is already running"));
+      return false;
+    }
+
+    PregenTask started = new PregenTask(source, level, new ChunkPos(center), radius);
+    task = started;
+    source.sendSuccess(
+        () -> Component.literal("Pre-generating " + started.totalChunks + " chunks"), true);
+    return true;
+  }
+
+  /**
+   * Stops the running pregeneration. Chunks that were already generated are kept.
+   *
+   * @param source The command source that stopped it
+   * @return false if no pregeneration was running
+   */
+  public static boolean stop(CommandSourceStack source) {
+    if (task == null) {
+      source.sendFailure(Component.literal("No geode pregeneration is running"));
+      return false;
+    }
+
+    task.cancel();
+    task = null;
+    source.sendSuccess(() -> Component.literal("Stopped geode pregeneration"), true);
+    return true;
+  }
+
+  @SubscribeEvent
+  public static void onServerTick(ServerTickEvent.Post event) {
+    if (task != null && task.tick()) {
+      task = null;
+    }
+  }
+
+  @SubscribeEvent
+  public static void onLevelUnload(LevelEvent.Unload event) {
+    if (task != null && task.level == event.getLevel()) {
+      task.cancel();
+      task = null;
+    }
+  }
+
+  @SubscribeEvent
+  public static void onServerStopping(ServerStoppingEvent event) {
+    if (task != null) {
+      task.cancel();
+      task = null;
+    }
+  }
+
+  /** A single pregeneration run */
+  private static final class PregenTask {
+    private final CommandSourceStack source;
+    private final ServerLevel level;
+    private final int minChunkX;
+    private final int minChunkZ;
+    private final int side;
+    private final int totalChunks;
+    private final long startNanos = System.nanoTime();
+
+    // Chunks requested but not generated yet, each holding a ticket
+    private final List<Request> inFlight = new ArrayList<>();
+
+    // Index of the next chunk of the square to request, row by row
+    private int next;
+    private int chunksDone;
+    private int ticks;
+
+    PregenTask(CommandSourceStack source, ServerLevel level, ChunkPos center, int radius) {
+      this.source = source;
+      this.level = level;
+      this.minChunkX = center.x - radius;
+      this.minChunkZ = center.z - radius;
+      this.side = radius * 2 + 1;
+      this.totalChunks = side * side;
+    }
+
+    /**
+     * Releases generated chunks and requests the next batch
+     *
+     * @return true once every chunk is generated
+     */
+    boolean tick() {
+      ServerChunkCache chunkSource = level.getChunkSource();
+      for (Iterator<Request> it = inFlight.iterator(); it.hasNext(); ) {
+        Request request = it.next();
+        if (request.future.isDone()) {
+          chunkSource.removeRegionTicket(PREGEN_TICKET, request.pos, 0, request.pos);
+          chunksDone++;
+          it.remove();
+        }
+      }
+
+      int budget = Config.pregenChunksPerTick;
+      while (budget > 0 && next < totalChunks && inFlight.size() < MAX_IN_FLIGHT) {
+        ChunkPos pos = new ChunkPos(minChunkX + next / side, minChunkZ + next % side);
+        // Existing chunks are only loaded, missing ones generate with all of their features
+        chunkSource.addRegionTicket(PREGEN_TICKET, pos, 0, pos);
+        inFlight.add(
+            new Request(pos, chunkSource.getChunkFuture(pos.x, pos.z, ChunkStatus.FULL, true)));
+        next++;
+        budget--;
+      }
+
+      ticks++;
+      if (chunksDone == totalChunks) {
+        source.sendSuccess(
+            () -> Component.literal("Finished geode pregeneration: " + describeProgress()), true);
+        return true;
+      }
+      if (ticks % PROGRESS_INTERVAL_TICKS == 0) {
+        source.sendSuccess(
+            () -> Component.literal("Geode pregeneration: " + describeProgress()), false);
+      }
+      return false;
+    }
+
+    // Chunks still generating may stop partway without their ticket, and resume when next loaded
+    void cancel() {
+      for (Request request : inFlight) {
+        level.getChunkSource().removeRegionTicket(PREGEN_TICKET, request.pos, 0, request.pos);
+      }
+      inFlight.clear();
+    }
+
+    private String describeProgress() {
+      double seconds = Math.max(1.0E-3D, (System.nanoTime() - startNanos) / 1.0E9D);
+      return String.format(
+          "%d/%d chunks, %.1f chunks/sec", chunksDone, totalChunks, chunksDone / seconds);
+    }
+  }
+
+  /**
+   * A requested chunk
+   *
+   * @param pos The chunk position, also the ticket's value
+   * @param future Completes once the chunk reached full status or failed to
+   */
+  private record Request(ChunkPos pos, CompletableFuture<ChunkResult<ChunkAccess>> future) {}
+}